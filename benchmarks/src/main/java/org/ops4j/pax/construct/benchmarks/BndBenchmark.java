@@ -0,0 +1,146 @@
+package org.ops4j.pax.construct.benchmarks;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ops4j.pax.construct.util.BndHeader;
+import org.ops4j.pax.construct.util.RoundTripBndFile;
+
+/**
+ * Editing of Bnd instructions, as done by pax:embed-jar, pax:import-bundle and the archetype mojos
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( {
+    Mode.Throughput, Mode.SampleTime
+} )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BndBenchmark
+{
+    /**
+     * Number of clauses in the generated header
+     */
+    private static final int CLAUSES = 50;
+
+    /**
+     * Directory holding the benchmark Bnd file
+     */
+    private File m_baseDir;
+
+    /**
+     * Benchmark Bnd file
+     */
+    private File m_bndFile;
+
+    /**
+     * Header with one clause per package, similar to a large Import-Package instruction
+     */
+    private String m_header;
+
+    /**
+     * Alternates the instruction written by {@link #writeBndFile()}, so every call really changes the file
+     */
+    private int m_writes;
+
+    /**
+     * @throws IOException
+     */
+    @Setup( Level.Trial )
+    public void setUp()
+        throws IOException
+    {
+        m_baseDir = ProjectTrees.createTempDir( "bnd-benchmark" );
+        m_bndFile = new File( m_baseDir, "osgi.bnd" );
+
+        StringBuffer header = new StringBuffer();
+        for( int i = 0; i < CLAUSES; i++ )
+        {
+            if( i > 0 )
+            {
+                header.append( ',' );
+            }
+            header.append( ProjectTrees.GROUP_ID ).append( ".pkg" ).append( i );
+            header.append( ";version=\"[1." ).append( i ).append( ",2)\";resolution:=optional" );
+        }
+        m_header = header.toString();
+
+        StringBuffer bnd = new StringBuffer();
+        bnd.append( "#-----------------------------------------------------------------\n" );
+        bnd.append( "# Use this file to add customized Bnd instructions for the bundle\n" );
+        bnd.append( "#-----------------------------------------------------------------\n\n" );
+        bnd.append( "Bundle-Activator: ${bundle.namespace}.internal.ExampleActivator\n" );
+        bnd.append( "Private-Package: ${bundle.namespace}.internal.*\n" );
+        bnd.append( "Embed-Dependency: *;scope=compile|runtime;type=!pom;inline=false\n" );
+        bnd.append( "Embed-Transitive: true\n" );
+        bnd.append( "Import-Package: " ).append( m_header.replaceAll( ",", ",\\\\\n  " ) ).append( '\n' );
+
+        ProjectTrees.write( m_bndFile, bnd.toString() );
+    }
+
+    /**
+     * @throws IOException
+     */
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws IOException
+    {
+        ProjectTrees.delete( m_baseDir );
+    }
+
+    /**
+     * @return Bnd file, read and written with one changed instruction
+     * @throws IOException
+     */
+    @Benchmark
+    public RoundTripBndFile writeBndFile()
+        throws IOException
+    {
+        RoundTripBndFile bndFile = new RoundTripBndFile( m_bndFile );
+        bndFile.setInstruction( "Embed-Transitive", ( m_writes++ & 1 ) == 0 ? "false" : "true", true );
+        bndFile.write();
+        return bndFile;
+    }
+
+    /**
+     * @return edited header, with one package removed and one added
+     */
+    @Benchmark
+    public String editHeader()
+    {
+        BndHeader header = new BndHeader( m_header );
+        header.removeClauses( ProjectTrees.GROUP_ID + ".pkg25", null, null );
+        header.addClause( ProjectTrees.GROUP_ID + ".extra;version=\"[1,2)\"" );
+        return header.toString();
+    }
+}
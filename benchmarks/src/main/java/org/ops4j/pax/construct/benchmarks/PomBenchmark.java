@@ -0,0 +1,149 @@
+package org.ops4j.pax.construct.benchmarks;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ops4j.pax.construct.util.PomUtils;
+import org.ops4j.pax.construct.util.PomUtils.Pom;
+import org.ops4j.pax.construct.util.XppPathQuery;
+
+/**
+ * Parsing, querying and writing of a single bundle POM
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( {
+    Mode.Throughput, Mode.SampleTime
+} )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PomBenchmark
+{
+    /**
+     * Directory holding the benchmark POM
+     */
+    private File m_baseDir;
+
+    /**
+     * Parsed benchmark POM, rewritten by {@link #writePom()}
+     */
+    private Pom m_pom;
+
+    /**
+     * Parsed XML document of the benchmark POM
+     */
+    private Xpp3Dom m_dom;
+
+    /**
+     * Selects a single dependency, like the queries used by pax:remove-bundle and pax:move-bundle
+     */
+    private XppPathQuery m_query;
+
+    /**
+     * Alternates the version written by {@link #writePom()}, so every call really changes the file
+     */
+    private int m_writes;
+
+    /**
+     * @throws Exception
+     */
+    @Setup( Level.Trial )
+    public void setUp()
+        throws Exception
+    {
+        m_baseDir = ProjectTrees.createTempDir( "pom-benchmark" );
+
+        String content = ProjectTrees.bundlePom( 42, "root" );
+        ProjectTrees.write( new File( m_baseDir, "pom.xml" ), content );
+
+        m_pom = PomUtils.readPom( m_baseDir );
+        m_dom = Xpp3DomBuilder.build( new StringReader( content ) );
+        m_query = new XppPathQuery( "dependencies/dependency[artifactId='library-17' and groupId='"
+            + ProjectTrees.GROUP_ID + ".synthetic']" );
+    }
+
+    /**
+     * @throws IOException
+     */
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws IOException
+    {
+        ProjectTrees.delete( m_baseDir );
+    }
+
+    /**
+     * @return parsed POM
+     * @throws IOException
+     */
+    @Benchmark
+    public Pom readPom()
+        throws IOException
+    {
+        return PomUtils.readPom( m_baseDir );
+    }
+
+    /**
+     * @return changed POM, after it has been written
+     * @throws IOException
+     */
+    @Benchmark
+    public Pom writePom()
+        throws IOException
+    {
+        m_pom.setVersion( ( m_writes++ & 1 ) == 0 ? "1.0.1-SNAPSHOT" : "1.0.0-SNAPSHOT" );
+        m_pom.write();
+        return m_pom;
+    }
+
+    /**
+     * @return indices of the matching dependencies
+     */
+    @Benchmark
+    public int[] queryChildren()
+    {
+        return m_query.queryChildren( m_query.queryParent( m_dom ) );
+    }
+
+    /**
+     * @return compound id, as used for bundle symbolic names and module group ids
+     */
+    @Benchmark
+    public String compoundId()
+    {
+        return PomUtils.getCompoundId( ProjectTrees.GROUP_ID, ProjectTrees.GROUP_ID + ".bundle42" );
+    }
+}
@@ -0,0 +1,129 @@
+package org.ops4j.pax.construct.benchmarks;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ops4j.pax.construct.util.DependencyGraph;
+import org.ops4j.pax.construct.util.DirUtils;
+import org.ops4j.pax.construct.util.PomIterator;
+import org.ops4j.pax.construct.util.PomUtils.Pom;
+
+/**
+ * Searches over generated project trees, the main cost of pax:import-bundle, pax:move-bundle and pax:eclipse
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( {
+    Mode.Throughput, Mode.SampleTime
+} )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ProjectTreeBenchmark
+{
+    /**
+     * Number of bundle modules in the generated tree
+     */
+    @Param( {
+        "10", "100", "1000"
+    } )
+    public int bundles;
+
+    /**
+     * Root of the generated tree
+     */
+    private File m_baseDir;
+
+    /**
+     * Id of the last bundle, which is the last one found when searching the tree
+     */
+    private String m_lastId;
+
+    /**
+     * @throws IOException
+     */
+    @Setup( Level.Trial )
+    public void setUp()
+        throws IOException
+    {
+        m_baseDir = ProjectTrees.createTempDir( "tree-benchmark" );
+        ProjectTrees.createTree( m_baseDir, bundles );
+
+        m_lastId = ProjectTrees.GROUP_ID + ":bundle-" + ( bundles - 1 );
+    }
+
+    /**
+     * @throws IOException
+     */
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws IOException
+    {
+        ProjectTrees.delete( m_baseDir );
+    }
+
+    /**
+     * @return last bundle POM in the tree
+     */
+    @Benchmark
+    public Pom findPom()
+    {
+        return DirUtils.findPom( m_baseDir, m_lastId );
+    }
+
+    /**
+     * @return number of POMs in the tree
+     */
+    @Benchmark
+    public int iterateTree()
+    {
+        int count = 0;
+        for( PomIterator i = new PomIterator( m_baseDir ); i.hasNext(); i.next() )
+        {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return bundles depending on the first bundle, after indexing the whole tree
+     */
+    @Benchmark
+    public List dependencyGraph()
+    {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addTree( m_baseDir );
+        return graph.getDependents( ProjectTrees.GROUP_ID, "bundle-0" );
+    }
+}
@@ -0,0 +1,262 @@
+package org.ops4j.pax.construct.benchmarks;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Generates synthetic but realistic Pax-Construct inputs for the benchmarks
+ */
+final class ProjectTrees
+{
+    /**
+     * Group id of all generated projects
+     */
+    static final String GROUP_ID = "org.example.bench";
+
+    /**
+     * Maximum number of bundles in each module group, matching a typical pax:synthetic-project tree
+     */
+    private static final int GROUP_SIZE = 10;
+
+    /**
+     * Hide constructor for utility class
+     */
+    private ProjectTrees()
+    {
+        /*
+         * nothing to do
+         */
+    }
+
+    /**
+     * @param prefix directory name prefix
+     * @return new empty temporary directory
+     * @throws IOException
+     */
+    static File createTempDir( String prefix )
+        throws IOException
+    {
+        File dir = File.createTempFile( prefix, "" );
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+
+    /**
+     * @param dir directory to delete, along with its content
+     * @throws IOException
+     */
+    static void delete( File dir )
+        throws IOException
+    {
+        FileUtils.deleteDirectory( dir );
+    }
+
+    /**
+     * Create a project tree with bundles spread over module groups, each bundle depends on the previous bundle
+     * 
+     * @param baseDir project directory
+     * @param bundles number of bundle modules
+     * @throws IOException
+     */
+    static void createTree( File baseDir, int bundles )
+        throws IOException
+    {
+        int groups = ( bundles + GROUP_SIZE - 1 ) / GROUP_SIZE;
+
+        StringBuffer modules = new StringBuffer();
+        for( int g = 0; g < groups; g++ )
+        {
+            modules.append( "    <module>group-" ).append( g ).append( "</module>\n" );
+        }
+        write( new File( baseDir, "pom.xml" ), parentPom( "root", null, modules.toString() ) );
+
+        for( int g = 0; g < groups; g++ )
+        {
+            File groupDir = new File( baseDir, "group-" + g );
+
+            modules.setLength( 0 );
+            for( int n = g * GROUP_SIZE; n < bundles && n < ( g + 1 ) * GROUP_SIZE; n++ )
+            {
+                modules.append( "    <module>bundle-" ).append( n ).append( "</module>\n" );
+                write( new File( groupDir, "bundle-" + n + "/pom.xml" ), bundlePom( n, "group-" + g ) );
+            }
+
+            write( new File( groupDir, "pom.xml" ), parentPom( "group-" + g, "root", modules.toString() ) );
+        }
+    }
+
+    /**
+     * @param artifactId project artifact id
+     * @param parentId parent artifact id, null for the root project
+     * @param modules module elements
+     * @return content of a module group POM
+     */
+    private static String parentPom( String artifactId, String parentId, String modules )
+    {
+        StringBuffer buf = new StringBuffer();
+
+        buf.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        buf.append( "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" );
+        buf.append( "  <modelVersion>4.0.0</modelVersion>\n" );
+        if( null != parentId )
+        {
+            buf.append( "  <parent>\n" );
+            buf.append( "    <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+            buf.append( "    <artifactId>" ).append( parentId ).append( "</artifactId>\n" );
+            buf.append( "    <version>1.0-SNAPSHOT</version>\n" );
+            buf.append( "  </parent>\n" );
+        }
+        buf.append( "  <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+        buf.append( "  <artifactId>" ).append( artifactId ).append( "</artifactId>\n" );
+        buf.append( "  <version>1.0-SNAPSHOT</version>\n" );
+        buf.append( "  <packaging>pom</packaging>\n" );
+        buf.append( "  <modules>\n" ).append( modules ).append( "  </modules>\n" );
+        buf.append( "</project>\n" );
+
+        return buf.toString();
+    }
+
+    /**
+     * @param n bundle number
+     * @param parentId parent artifact id
+     * @return content of a bundle POM, similar to those created by pax:create-bundle
+     */
+    static String bundlePom( int n, String parentId )
+    {
+        StringBuffer buf = new StringBuffer();
+
+        buf.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        buf.append( "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" );
+        buf.append( "  <modelVersion>4.0.0</modelVersion>\n" );
+        buf.append( "  <parent>\n" );
+        buf.append( "    <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+        buf.append( "    <artifactId>" ).append( parentId ).append( "</artifactId>\n" );
+        buf.append( "    <version>1.0-SNAPSHOT</version>\n" );
+        buf.append( "  </parent>\n" );
+        buf.append( "  <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+        buf.append( "  <artifactId>bundle-" ).append( n ).append( "</artifactId>\n" );
+        buf.append( "  <version>1.0-SNAPSHOT</version>\n" );
+        buf.append( "  <name>${bundle.symbolicName}</name>\n" );
+        buf.append( "  <packaging>bundle</packaging>\n" );
+        buf.append( "  <properties>\n" );
+        buf.append( "    <bundle.symbolicName>" ).append( GROUP_ID ).append( ".bundle" ).append( n );
+        buf.append( "</bundle.symbolicName>\n" );
+        buf.append( "    <bundle.namespace>" ).append( GROUP_ID ).append( ".bundle" ).append( n );
+        buf.append( "</bundle.namespace>\n" );
+        buf.append( "  </properties>\n" );
+        buf.append( "  <dependencies>\n" );
+        if( n > 0 )
+        {
+            appendDependency( buf, GROUP_ID, "bundle-" + ( n - 1 ), "1.0-SNAPSHOT", null );
+        }
+        for( int i = 0; i < 20; i++ )
+        {
+            appendDependency( buf, GROUP_ID + ".synthetic", "library-" + i, "1.0", i % 4 == 0 ? "provided" : null );
+        }
+        buf.append( "  </dependencies>\n" );
+        buf.append( "  <build>\n" );
+        buf.append( "    <plugins>\n" );
+        buf.append( "      <plugin>\n" );
+        buf.append( "        <groupId>org.ops4j</groupId>\n" );
+        buf.append( "        <artifactId>maven-pax-plugin</artifactId>\n" );
+        buf.append( "        <extensions>true</extensions>\n" );
+        buf.append( "      </plugin>\n" );
+        buf.append( "    </plugins>\n" );
+        buf.append( "  </build>\n" );
+        buf.append( "</project>\n" );
+
+        return buf.toString();
+    }
+
+    /**
+     * @param buf POM content
+     * @param groupId dependency group id
+     * @param artifactId dependency artifact id
+     * @param version dependency version
+     * @param scope dependency scope, may be null
+     */
+    private static void appendDependency( StringBuffer buf, String groupId, String artifactId, String version,
+        String scope )
+    {
+        buf.append( "    <dependency>\n" );
+        buf.append( "      <groupId>" ).append( groupId ).append( "</groupId>\n" );
+        buf.append( "      <artifactId>" ).append( artifactId ).append( "</artifactId>\n" );
+        buf.append( "      <version>" ).append( version ).append( "</version>\n" );
+        if( null != scope )
+        {
+            buf.append( "      <scope>" ).append( scope ).append( "</scope>\n" );
+        }
+        buf.append( "    </dependency>\n" );
+    }
+
+    /**
+     * @param jarFile new bundle jar
+     * @param entries number of class entries
+     * @throws IOException
+     */
+    static void createBundle( File jarFile, int entries )
+        throws IOException
+    {
+        byte[] content = new byte[2048];
+
+        JarOutputStream jar = new JarOutputStream( new FileOutputStream( jarFile ) );
+        try
+        {
+            jar.putNextEntry( new JarEntry( "META-INF/MANIFEST.MF" ) );
+            jar.write( ( "Manifest-Version: 1.0\nBundle-SymbolicName: " + GROUP_ID + ".unpack\n" ).getBytes( "UTF-8" ) );
+            for( int i = 0; i < entries; i++ )
+            {
+                jar.putNextEntry( new JarEntry( "org/example/bench/pkg" + i % 10 + "/Class" + i + ".class" ) );
+                jar.write( content );
+            }
+        }
+        finally
+        {
+            jar.close();
+        }
+    }
+
+    /**
+     * @param file file to write, parent directories are created as needed
+     * @param content file content
+     * @throws IOException
+     */
+    static void write( File file, String content )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( content.getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
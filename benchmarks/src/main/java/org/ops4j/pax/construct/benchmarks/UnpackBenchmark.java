@@ -0,0 +1,91 @@
+package org.ops4j.pax.construct.benchmarks;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ops4j.pax.construct.util.DirUtils;
+
+/**
+ * Unpacking of imported bundles, as done by pax:eclipse for each bundle in a provisioning POM
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( {
+    Mode.Throughput, Mode.SampleTime
+} )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class UnpackBenchmark
+{
+    /**
+     * Directory holding the benchmark bundle and its unpacked content
+     */
+    private File m_baseDir;
+
+    /**
+     * Benchmark bundle
+     */
+    private File m_bundle;
+
+    /**
+     * @throws IOException
+     */
+    @Setup( Level.Trial )
+    public void setUp()
+        throws IOException
+    {
+        m_baseDir = ProjectTrees.createTempDir( "unpack-benchmark" );
+        m_bundle = new File( m_baseDir, "bundle.jar" );
+
+        ProjectTrees.createBundle( m_bundle, 200 );
+    }
+
+    /**
+     * @throws IOException
+     */
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws IOException
+    {
+        ProjectTrees.delete( m_baseDir );
+    }
+
+    /**
+     * @return true if the bundle was unpacked
+     */
+    @Benchmark
+    public boolean unpackBundle()
+    {
+        return DirUtils.unpackBundle( m_bundle, new File( m_baseDir, "unpacked" ), null );
+    }
+}
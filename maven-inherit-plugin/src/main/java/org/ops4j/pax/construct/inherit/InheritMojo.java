@@ -17,10 +17,18 @@ package org.ops4j.pax.construct.inherit;
  */
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
@@ -30,10 +38,7 @@ import org.apache.maven.artifact.resolver.ArtifactResolver;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
-import org.codehaus.plexus.archiver.ArchiverException;
-import org.codehaus.plexus.archiver.UnArchiver;
-import org.codehaus.plexus.archiver.manager.ArchiverManager;
-import org.codehaus.plexus.archiver.manager.NoSuchArchiverException;
+import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
@@ -85,6 +90,33 @@ public class InheritMojo extends AbstractMojo
      */
     private static final String EXTENDS_GOAL = "extendsGoal";
 
+    /**
+     * byte pattern used to find sources that need inheritance
+     */
+    private static final byte[] TAG_MARKER = ( '@' + EXTENDS_PLUGIN ).getBytes();
+
+    /**
+     * maximum number of dependent plugin jars kept in the metadata cache
+     */
+    private static final int MAX_CACHED_PLUGINS = 32;
+
+    /**
+     * metadata read from dependent plugin jars, keyed by jar location, size and timestamp (shared between builds)
+     */
+    private static final Map PLUGIN_CACHE = new LinkedHashMap( 16, 0.75f, true )
+    {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * {@inheritDoc}
+         */
+        protected boolean removeEldestEntry( Map.Entry eldest )
+        {
+            // drop the least recently used metadata, such as old snapshots of the same plugin
+            return size() > MAX_CACHED_PLUGINS;
+        }
+    };
+
     /**
      * local plugin project
      * 
@@ -101,13 +133,6 @@ public class InheritMojo extends AbstractMojo
      */
     private File m_outputDirectory;
 
-    /**
-     * support for accessing archives
-     * 
-     * @component
-     */
-    private ArchiverManager m_archiverManager;
-
     /**
      * support for artifact resolution 
      * 
@@ -132,11 +157,19 @@ public class InheritMojo extends AbstractMojo
         PluginXml targetPlugin = loadPluginMetadata( m_outputDirectory );
         Map dependentPluginsByName = loadDependentPluginMetaData();
 
-        // select maven source directories
+        // only parse sources that might use inheritance
         JavaDocBuilder builder = new JavaDocBuilder();
-        for( Iterator i = m_project.getCompileSourceRoots().iterator(); i.hasNext(); )
+        for( Iterator i = findInheritingSources().iterator(); i.hasNext(); )
         {
-            builder.addSourceTree( new File( (String) i.next() ) );
+            File source = (File) i.next();
+            try
+            {
+                builder.addSource( source );
+            }
+            catch( IOException e )
+            {
+                throw new MojoExecutionException( "cannot read source " + source, e );
+            }
         }
 
         // scan local source for javadoc tags
@@ -175,6 +208,157 @@ public class InheritMojo extends AbstractMojo
         }
     }
 
+    /**
+     * Finds local sources that mention the inheritance tag, using a quick byte scan rather than a full parse. Results
+     * are cached by file timestamp between builds.
+     * 
+     * @return list of source files to parse
+     */
+    private List findInheritingSources()
+    {
+        File cacheFile = new File( m_project.getBuild().getDirectory(), "inherit-sources.properties" );
+
+        Properties oldCache = new Properties();
+        if( cacheFile.exists() )
+        {
+            try
+            {
+                InputStream in = new FileInputStream( cacheFile );
+                try
+                {
+                    oldCache.load( in );
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                }
+            }
+            catch( IOException e )
+            {
+                oldCache.clear();
+            }
+        }
+
+        List sources = new ArrayList();
+        for( Iterator i = m_project.getCompileSourceRoots().iterator(); i.hasNext(); )
+        {
+            collectJavaFiles( new File( (String) i.next() ), sources );
+        }
+
+        Properties newCache = new Properties();
+        List candidates = new ArrayList();
+        for( Iterator i = sources.iterator(); i.hasNext(); )
+        {
+            File source = (File) i.next();
+            String stamp = Long.toString( source.lastModified() ) + ':';
+
+            boolean found;
+            String cached = oldCache.getProperty( source.getPath() );
+            if( null != cached && cached.startsWith( stamp ) )
+            {
+                found = Boolean.valueOf( cached.substring( stamp.length() ) ).booleanValue();
+            }
+            else
+            {
+                found = containsTag( source, TAG_MARKER );
+            }
+
+            newCache.setProperty( source.getPath(), stamp + found );
+            if( found )
+            {
+                candidates.add( source );
+            }
+        }
+
+        try
+        {
+            cacheFile.getParentFile().mkdirs();
+            OutputStream out = new FileOutputStream( cacheFile );
+            try
+            {
+                newCache.store( out, "maven-inherit-plugin source scan" );
+            }
+            finally
+            {
+                IOUtil.close( out );
+            }
+        }
+        catch( IOException e )
+        {
+            getLog().debug( "cannot save source scan results to " + cacheFile );
+        }
+
+        return candidates;
+    }
+
+    /**
+     * @param dir source directory
+     * @param sources list of Java source files
+     */
+    private static void collectJavaFiles( File dir, List sources )
+    {
+        File[] files = dir.listFiles();
+        if( null == files )
+        {
+            return;
+        }
+
+        for( int i = 0; i < files.length; i++ )
+        {
+            if( files[i].isDirectory() )
+            {
+                collectJavaFiles( files[i], sources );
+            }
+            else if( files[i].getName().endsWith( ".java" ) )
+            {
+                sources.add( files[i] );
+            }
+        }
+    }
+
+    /**
+     * @param source Java source file
+     * @param marker ASCII byte sequence
+     * @return true if the source contains the marker (or can't be read), otherwise false
+     */
+    private static boolean containsTag( File source, byte[] marker )
+    {
+        byte[] content;
+        try
+        {
+            InputStream in = new FileInputStream( source );
+            try
+            {
+                content = IOUtil.toByteArray( in );
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+        }
+        catch( IOException e )
+        {
+            // let the full parse report the problem
+            return true;
+        }
+
+        int last = content.length - marker.length;
+        for( int i = 0; i <= last; i++ )
+        {
+            int n = 0;
+            while( n < marker.length && content[i + n] == marker[n] )
+            {
+                n++;
+            }
+            if( n == marker.length )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Loads plugin metadata for the given plugin location
      * 
@@ -210,31 +394,37 @@ public class InheritMojo extends AbstractMojo
     private Map loadDependentPluginMetaData()
         throws MojoExecutionException
     {
-        File buildArea = new File( m_project.getBuild().getDirectory(), "plugins" );
-
-        Map pluginsByName = new HashMap();
+        List loaders = new ArrayList();
         for( Iterator i = m_project.getDependencyArtifacts().iterator(); i.hasNext(); )
         {
             Artifact artifact = (Artifact) i.next();
             if( "maven-plugin".equals( artifact.getType() ) )
             {
+                // the resolver isn't thread-safe, so resolve here and only parse in the background
                 resolve( artifact );
-                
-                if ( artifact.getFile() == null )
+                if( null != artifact.getFile() )
                 {
-                  continue;
+                    // there are only ever a few plugin dependencies, so use one thread for each
+                    PluginLoader loader = new PluginLoader( artifact );
+                    loader.start();
+                    loaders.add( loader );
                 }
-              
-                File unpackDir = new File( buildArea, artifact.getArtifactId() );
-                unpackPlugin( artifact, unpackDir );
+            }
+        }
 
-                // extract simple plugin name by applying the standard maven naming rules in reverse
-                String name = artifact.getArtifactId().replaceAll( "(?:maven-)?(\\w+)(?:-maven)?-plugin", "$1" );
+        Map pluginsByName = new HashMap();
+        for( Iterator i = loaders.iterator(); i.hasNext(); )
+        {
+            PluginLoader loader = (PluginLoader) i.next();
 
-                PluginXml pluginXml = loadPluginMetadata( unpackDir );
-                pluginsByName.put( artifact.getArtifactId(), pluginXml );
-                pluginsByName.put( name, pluginXml ); // short form
-            }
+            PluginXml pluginXml = loader.getPluginXml();
+            String artifactId = loader.getArtifact().getArtifactId();
+
+            // extract simple plugin name by applying the standard maven naming rules in reverse
+            String name = artifactId.replaceAll( "(?:maven-)?(\\w+)(?:-maven)?-plugin", "$1" );
+
+            pluginsByName.put( artifactId, pluginXml );
+            pluginsByName.put( name, pluginXml ); // short form
         }
 
         return pluginsByName;
@@ -258,37 +448,47 @@ public class InheritMojo extends AbstractMojo
     
 
     /**
-     * Unpacks a maven plugin artifact to the given directory
+     * Reads plugin metadata straight from a maven plugin jar, re-using metadata from earlier builds when the jar is
+     * unchanged
      * 
-     * @param artifact maven plugin
-     * @param unpackDir directory to unpack to
+     * @param pluginFile maven plugin jar
+     * @return plugin metadata (read-only)
      * @throws MojoExecutionException
      */
-    private void unpackPlugin( Artifact artifact, File unpackDir )
+    static PluginXml loadJarMetadata( File pluginFile )
         throws MojoExecutionException
     {
-        File pluginFile = artifact.getFile();
-        unpackDir.mkdirs();
+        String key = pluginFile.getAbsolutePath() + '@' + pluginFile.length() + '@' + pluginFile.lastModified();
 
-        try
+        synchronized( PLUGIN_CACHE )
         {
-            UnArchiver unArchiver = m_archiverManager.getUnArchiver( pluginFile );
-            unArchiver.setDestDirectory( unpackDir );
-            unArchiver.setSourceFile( pluginFile );
-            unArchiver.extract();
+            PluginXml pluginXml = (PluginXml) PLUGIN_CACHE.get( key );
+            if( null != pluginXml )
+            {
+                return pluginXml;
+            }
         }
-        catch( NoSuchArchiverException e )
+
+        PluginXml pluginXml;
+        try
         {
-            throw new MojoExecutionException( "cannot find unarchiver for " + pluginFile, e );
+            pluginXml = PluginXml.readFromJar( pluginFile );
         }
         catch( IOException e )
         {
-            throw new MojoExecutionException( "problem reading file " + pluginFile, e );
+            throw new MojoExecutionException( "cannot read plugin metadata from " + pluginFile, e );
         }
-        catch( ArchiverException e )
+        catch( XmlPullParserException e )
         {
-            throw new MojoExecutionException( "problem unpacking file " + pluginFile, e );
+            throw new MojoExecutionException( "cannot parse plugin metadata from " + pluginFile, e );
         }
+
+        synchronized( PLUGIN_CACHE )
+        {
+            PLUGIN_CACHE.put( key, pluginXml );
+        }
+
+        return pluginXml;
     }
 
     /**
@@ -328,4 +528,100 @@ public class InheritMojo extends AbstractMojo
 
         PluginXml.mergeMojo( targetMojoXml, superMojoXml );
     }
+
+    /**
+     * Loads the metadata of a resolved maven plugin in the background
+     */
+    private final class PluginLoader extends Thread
+    {
+        /**
+         * maven plugin
+         */
+        private final Artifact m_artifact;
+
+        /**
+         * plugin metadata
+         */
+        private PluginXml m_pluginXml;
+
+        /**
+         * problem loading the plugin metadata
+         */
+        private MojoExecutionException m_error;
+
+        /**
+         * @param artifact resolved maven plugin
+         */
+        public PluginLoader( Artifact artifact )
+        {
+            super( "inherit-" + artifact.getArtifactId() );
+
+            m_artifact = artifact;
+
+            setContextClassLoader( Thread.currentThread().getContextClassLoader() );
+            setDaemon( true );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void run()
+        {
+            try
+            {
+                m_pluginXml = loadJarMetadata( m_artifact.getFile() );
+            }
+            catch( MojoExecutionException e )
+            {
+                m_error = e;
+            }
+            catch( RuntimeException e )
+            {
+                m_error = new MojoExecutionException( "cannot load plugin metadata from " + m_artifact.getFile(), e );
+            }
+        }
+
+        /**
+         * @return maven plugin
+         */
+        public Artifact getArtifact()
+        {
+            return m_artifact;
+        }
+
+        /**
+         * Waits for the plugin metadata to be loaded
+         * 
+         * @return plugin metadata
+         * @throws MojoExecutionException
+         */
+        public PluginXml getPluginXml()
+            throws MojoExecutionException
+        {
+            boolean interrupted = false;
+            while( isAlive() )
+            {
+                try
+                {
+                    join();
+                }
+                catch( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+            }
+
+            if( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            if( null != m_error )
+            {
+                throw m_error;
+            }
+
+            return m_pluginXml;
+        }
+    }
 }
@@ -20,6 +20,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
 
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
@@ -37,6 +41,11 @@ public class PluginXml
     private static final String EXECUTE_GOAL = "executeGoal";
     private static final String EXECUTE_PHASE = "executePhase";
 
+    /**
+     * Location of the plugin metadata inside a plugin jar
+     */
+    public static final String PLUGIN_XML = "META-INF/maven/plugin.xml";
+
     private final File m_file;
     private Xpp3Dom m_xml;
 
@@ -52,13 +61,82 @@ public class PluginXml
     {
         m_file = file;
 
-        XmlPullParser parser = new MXParser();
         Reader reader = StreamFactory.newXmlReader( m_file );
-        parser.setInput( reader );
+        try
+        {
+            m_xml = parse( reader );
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+    }
 
-        m_xml = Xpp3DomBuilder.build( parser, false );
+    /**
+     * @param xml parsed plugin metadata, not backed by any file
+     */
+    private PluginXml( Xpp3Dom xml )
+    {
+        m_file = null;
+        m_xml = xml;
+    }
+
+    /**
+     * Reads plugin metadata straight from a plugin jar without unpacking it, the result cannot be written back
+     * 
+     * @param jarFile maven plugin jar
+     * @return plugin metadata
+     * @throws XmlPullParserException
+     * @throws IOException
+     */
+    public static PluginXml readFromJar( File jarFile )
+        throws XmlPullParserException, IOException
+    {
+        JarFile jar = new JarFile( jarFile );
+        try
+        {
+            ZipEntry entry = jar.getEntry( PLUGIN_XML );
+            if( null == entry )
+            {
+                throw new IOException( "missing " + PLUGIN_XML + " in " + jarFile );
+            }
+
+            Reader reader = StreamFactory.newXmlReader( jar.getInputStream( entry ) );
+            try
+            {
+                return new PluginXml( parse( reader ) );
+            }
+            finally
+            {
+                IOUtil.close( reader );
+            }
+        }
+        finally
+        {
+            try
+            {
+                jar.close();
+            }
+            catch( IOException e )
+            {
+                // ignore, we already have what we need
+            }
+        }
+    }
+
+    /**
+     * @param reader XML reader
+     * @return parsed plugin metadata
+     * @throws XmlPullParserException
+     * @throws IOException
+     */
+    private static Xpp3Dom parse( Reader reader )
+        throws XmlPullParserException, IOException
+    {
+        XmlPullParser parser = new MXParser();
+        parser.setInput( reader );
 
-        IOUtil.close( reader );
+        return Xpp3DomBuilder.build( parser, false );
     }
 
     /**
@@ -151,84 +229,58 @@ public class PluginXml
             return;
         }
 
-        for( int s = 0; s < tempList.getChildCount(); s++ )
-        {
-            Xpp3Dom idElement = getIdElement( tempList.getChild( s ), path );
-            if( hasMatchingElement( list, path, verbose, idElement ) )
-            {
-                // decrement index to avoid skipping entries, as list shrinks by one
-                tempList.removeChild( s-- );
-            }
-        }
-    }
+        String[] idSegments = null == path ? new String[0] : path.split( "/" );
+        boolean useValue = null != path && path.endsWith( "/" );
 
-    /**
-     * Searches an element list for any elements with the same id
-     * 
-     * Elements are matched by comparing their ids, which are located using a simple XML path notation. If the path is
-     * not null and ends in / then the content of the id element is used, otherwise the name of the id element is used
-     * 
-     * @param list element list
-     * @param path simple XML path with the location of the id element
-     * @param verbose print warnings about any matching elements
-     * @param theIdElement id element to compare against
-     * @return true if element list contains a matching element
-     */
-    private static boolean hasMatchingElement( Xpp3Dom list, String path, boolean verbose, Xpp3Dom theIdElement )
-    {
+        // index the dominant ids once, so each check is a simple lookup
+        Set ids = new HashSet();
         for( int n = 0; n < list.getChildCount(); n++ )
         {
-            Xpp3Dom idElement = getIdElement( list.getChild( n ), path );
-
-            String lhs;
-            String rhs;
-
-            if( null != path && path.endsWith( "/" ) )
+            String id = getId( list.getChild( n ), idSegments, useValue );
+            if( null != id )
             {
-                lhs = theIdElement.getValue();
-                rhs = idElement.getValue();
-            }
-            else
-            {
-                lhs = theIdElement.getName();
-                rhs = idElement.getName();
+                ids.add( id );
             }
+        }
 
-            if( lhs.equals( rhs ) )
+        for( int s = 0; s < tempList.getChildCount(); s++ )
+        {
+            String id = getId( tempList.getChild( s ), idSegments, useValue );
+            if( null != id && ids.contains( id ) )
             {
                 if( verbose )
                 {
-                    System.out.println( "[WARN] overriding field " + lhs );
+                    System.out.println( "[WARN] overriding field " + id );
                 }
 
-                return true;
+                // decrement index to avoid skipping entries, as list shrinks by one
+                tempList.removeChild( s-- );
             }
         }
-
-        return false;
     }
 
     /**
-     * Finds the element that represents the id, according to an XML path
+     * Finds the id of an element, according to an XML path
      * 
      * @param element start element
-     * @param path simple XML path with the location of the id element
-     * @return id element
+     * @param idSegments segments of the simple XML path with the location of the id element
+     * @param useValue use the content of the id element if true, otherwise use its name
+     * @return element id, null if there is no id element
      */
-    private static Xpp3Dom getIdElement( Xpp3Dom element, String path )
+    private static String getId( Xpp3Dom element, String[] idSegments, boolean useValue )
     {
         Xpp3Dom idElement = element;
+        for( int i = 0; i < idSegments.length && null != idElement; i++ )
+        {
+            idElement = idElement.getChild( idSegments[i] );
+        }
 
-        if( null != path )
+        if( null == idElement )
         {
-            String[] idSegments = path.split( "/" );
-            for( int i = 0; i < idSegments.length; i++ )
-            {
-                idElement = element.getChild( idSegments[i] );
-            }
+            return null;
         }
 
-        return idElement;
+        return useValue ? idElement.getValue() : idElement.getName();
     }
 
     /**
@@ -301,6 +353,11 @@ public class PluginXml
     public void write()
         throws IOException
     {
+        if( null == m_file )
+        {
+            throw new IOException( "plugin metadata for " + this + " is read-only" );
+        }
+
         String encoding = StreamFactory.getXmlEncoding( m_file );
         Writer writer = StreamFactory.newXmlWriter( m_file );
 
@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.Writer;
 
@@ -69,6 +71,17 @@ final class StreamFactory
             return ReaderFactory.newXmlReader( xmlFile );
         }
 
+        /**
+         * @param xmlStream XML stream to be read
+         * @return reader with correct XML encoding
+         * @throws IOException
+         */
+        static Reader newXmlReader( InputStream xmlStream )
+            throws IOException
+        {
+            return ReaderFactory.newXmlReader( xmlStream );
+        }
+
         /**
          * @param xmlFile XML file to be written
          * @return writer with correct XML encoding
@@ -99,6 +112,24 @@ final class StreamFactory
         }
     }
 
+    /**
+     * @param xmlStream XML stream to be read
+     * @return reader with correct XML encoding
+     * @throws IOException
+     */
+    public static Reader newXmlReader( InputStream xmlStream )
+        throws IOException
+    {
+        try
+        {
+            return XmlStreamFactory.newXmlReader( xmlStream );
+        }
+        catch( NoClassDefFoundError e )
+        {
+            return new InputStreamReader( xmlStream, "UTF-8" );
+        }
+    }
+
     /**
      * @param xmlFile XML file to be written
      * @return writer with correct XML encoding
@@ -51,6 +51,7 @@ import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
 import org.ops4j.pax.construct.util.BndUtils;
 import org.ops4j.pax.construct.util.BndUtils.Bnd;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.DirUtils;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
@@ -322,27 +323,38 @@ public abstract class AbstractPaxArchetypeMojo extends AbstractMojo
     public final void execute()
         throws MojoExecutionException
     {
-        updateFields();
-        createModuleTree();
-
-        /*
-         * support repeated creation of projects
-         */
-        do
+        BuildStats.begin( this );
+        try
         {
-            scheduleCustomArchetypes();
-            updateExtensionFields();
+            updateFields();
+            createModuleTree();
 
-            prepareTarget();
-            generateArchetype();
-            cacheSettings();
+            /*
+             * support repeated creation of projects
+             */
+            do
+            {
+                scheduleCustomArchetypes();
+                updateExtensionFields();
+
+                prepareTarget();
+                generateArchetype();
+                cacheSettings();
+
+                runCustomArchetypes();
 
-            runCustomArchetypes();
+                long startTime = BuildStats.start();
+                postProcess();
+                BuildStats.stop( "archetype.postProcess", startTime );
 
-            postProcess();
-            cleanUp();
+                cleanUp();
 
-        } while( createMoreArtifacts() );
+            } while( createMoreArtifacts() );
+        }
+        finally
+        {
+            BuildStats.report( this );
+        }
     }
 
     /**
@@ -904,8 +916,10 @@ public abstract class AbstractPaxArchetypeMojo extends AbstractMojo
             String artifactId = getArchetypeProperty( "archetypeArtifactId" );
             String version = getArchetypeProperty( "archetypeVersion" );
 
+            long startTime = BuildStats.start();
             m_archetype.createArchetype( groupId, artifactId, version, m_localRepo, m_remoteRepos,
                 m_archetypeProperties );
+            BuildStats.stop( "archetype.generate", startTime );
         }
         catch( ArchetypeNotFoundException e )
         {
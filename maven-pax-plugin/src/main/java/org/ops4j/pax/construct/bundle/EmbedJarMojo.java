@@ -16,9 +16,14 @@ package org.ops4j.pax.construct.bundle;
  * limitations under the License.
  */
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.factory.ArtifactFactory;
@@ -27,9 +32,15 @@ import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.IOUtil;
+import org.ops4j.pax.construct.util.BndHeader;
 import org.ops4j.pax.construct.util.BndUtils;
 import org.ops4j.pax.construct.util.BndUtils.Bnd;
+import org.ops4j.pax.construct.util.BuildStats;
+import org.ops4j.pax.construct.util.ParallelUtils;
 import org.ops4j.pax.construct.util.PomUtils;
+import org.ops4j.pax.construct.util.StreamFactory;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
 
 /**
@@ -39,12 +50,19 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  *   mvn pax:embed-jar [-DgroupId=...] -DartifactId=... [-Dversion=...]
  * </pre></code>
  * 
+ * or to embed several jars in one go
+ * 
+ * <code><pre>
+ *   mvn pax:embed-jar -Dartifacts=[groupId:]artifactId[:version],... [-DartifactsFile=...]
+ * </pre></code>
+ * 
  * @goal embed-jar
  * @aggregator true
  * 
  * @requiresProject false
  */
 public class EmbedJarMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * Component factory for Maven artifacts
@@ -89,7 +107,6 @@ public class EmbedJarMojo extends AbstractMojo
      * The artifactId of the jar to be embedded.
      * 
      * @parameter expression="${artifactId}"
-     * @required
      */
     private String artifactId;
 
@@ -100,6 +117,27 @@ public class EmbedJarMojo extends AbstractMojo
      */
     private String version;
 
+    /**
+     * Comma separated list of jars to be embedded, each given as [groupId:]artifactId[:version].
+     * 
+     * @parameter expression="${artifacts}"
+     */
+    private String artifacts;
+
+    /**
+     * File listing jars to be embedded, one [groupId:]artifactId[:version] per line ('#' starts a comment).
+     * 
+     * @parameter expression="${artifactsFile}"
+     */
+    private File artifactsFile;
+
+    /**
+     * Number of threads used to resolve release versions, zero or less means one per available processor.
+     * 
+     * @parameter expression="${embedThreads}" default-value="0"
+     */
+    private int embedThreads;
+
     /**
      * When true, unpack the jar inside the bundle.
      * 
@@ -132,41 +170,195 @@ public class EmbedJarMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
-        populateMissingFields();
+        List jars = getEmbeddedJars();
+        if( jars.isEmpty() )
+        {
+            throw new MojoExecutionException( "Missing artifactId, use -DartifactId=... or -Dartifacts=..." );
+        }
+
+        populateMissingFields( jars );
 
-        updatePomDependencies();
-        updateBndInstructions();
+        updatePomDependencies( jars );
+        updateBndInstructions( jars );
     }
 
     /**
-     * Populate missing fields with information from the Maven repository
+     * @return list of jars to embed, in the order they were given
+     * @throws MojoExecutionException
+     */
+    private List getEmbeddedJars()
+        throws MojoExecutionException
+    {
+        Map jars = new LinkedHashMap();
+
+        if( !PomUtils.isEmpty( artifactId ) )
+        {
+            addEmbeddedJar( jars, new EmbeddedJar( groupId, artifactId, version ) );
+        }
+
+        if( !PomUtils.isEmpty( artifacts ) )
+        {
+            String[] coordinates = artifacts.split( "," );
+            for( int i = 0; i < coordinates.length; i++ )
+            {
+                addEmbeddedJar( jars, coordinates[i] );
+            }
+        }
+
+        if( null != artifactsFile )
+        {
+            try
+            {
+                BufferedReader reader = new BufferedReader( StreamFactory.newPlatformReader( artifactsFile ) );
+                try
+                {
+                    for( String line = reader.readLine(); line != null; line = reader.readLine() )
+                    {
+                        int comment = line.indexOf( '#' );
+                        addEmbeddedJar( jars, comment < 0 ? line : line.substring( 0, comment ) );
+                    }
+                }
+                finally
+                {
+                    IOUtil.close( reader );
+                }
+            }
+            catch( IOException e )
+            {
+                throw new MojoExecutionException( "Problem reading artifacts file: " + artifactsFile );
+            }
+        }
+
+        return new ArrayList( jars.values() );
+    }
+
+    /**
+     * @param jars jars to embed, keyed by groupId:artifactId
+     * @param coordinates [groupId:]artifactId[:version]
+     * @throws MojoExecutionException
+     */
+    private static void addEmbeddedJar( Map jars, String coordinates )
+        throws MojoExecutionException
+    {
+        String text = coordinates.trim();
+        if( text.length() == 0 )
+        {
+            return;
+        }
+
+        String[] fields = text.split( ":" );
+        switch( fields.length )
+        {
+            case 1:
+                addEmbeddedJar( jars, new EmbeddedJar( null, fields[0], null ) );
+                break;
+            case 2:
+                addEmbeddedJar( jars, new EmbeddedJar( fields[0], fields[1], null ) );
+                break;
+            case 3:
+                addEmbeddedJar( jars, new EmbeddedJar( fields[0], fields[1], fields[2] ) );
+                break;
+            default:
+                throw new MojoExecutionException( "Bad artifact coordinates: " + text );
+        }
+    }
+
+    /**
+     * @param jars jars to embed, keyed by groupId:artifactId
+     * @param jar jar to embed, replaces any earlier entry for the same groupId:artifactId
+     */
+    private static void addEmbeddedJar( Map jars, EmbeddedJar jar )
+    {
+        String key = jar.getGroupId() + ':' + jar.getArtifactId();
+        jars.remove( key );
+        jars.put( key, jar );
+    }
+
+    /**
+     * Populate missing versions with information from the Maven repository, resolving them concurrently
      * 
+     * @param jars jars to embed
      * @throws MojoExecutionException
      */
-    private void populateMissingFields()
+    private void populateMissingFields( List jars )
         throws MojoExecutionException
     {
-        if( PomUtils.isEmpty( groupId ) )
+        List tasks = new ArrayList();
+        for( Iterator i = jars.iterator(); i.hasNext(); )
         {
-            // this is a common assumption
-            groupId = artifactId;
+            final EmbeddedJar jar = (EmbeddedJar) i.next();
+            if( PomUtils.needReleaseVersion( jar.getVersion() ) )
+            {
+                tasks.add( new Runnable()
+                {
+                    public void run()
+                    {
+                        resolveReleaseVersion( jar );
+                    }
+                } );
+            }
+        }
+
+        ParallelUtils.runAll( tasks, embedThreads );
+
+        for( Iterator i = jars.iterator(); i.hasNext(); )
+        {
+            EmbeddedJar jar = (EmbeddedJar) i.next();
+            if( null != jar.getError() )
+            {
+                throw jar.getError();
+            }
+            if( PomUtils.needReleaseVersion( jar.getVersion() ) )
+            {
+                throw new MojoExecutionException( "Unable to find release version of " + jar.getGroupId() + ':'
+                    + jar.getArtifactId() );
+            }
         }
+    }
 
-        if( PomUtils.needReleaseVersion( version ) )
+    /**
+     * @param jar jar to embed
+     */
+    void resolveReleaseVersion( EmbeddedJar jar )
+    {
+        try
+        {
+            Artifact artifact = m_factory.createBuildArtifact( jar.getGroupId(), jar.getArtifactId(), "RELEASE",
+                "jar" );
+            jar.setVersion( PomUtils.getReleaseVersion( artifact, m_source, m_remoteRepos, m_localRepo, null ) );
+        }
+        catch( MojoExecutionException e )
+        {
+            jar.setError( e );
+        }
+        catch( RuntimeException e )
         {
-            Artifact artifact = m_factory.createBuildArtifact( groupId, artifactId, "RELEASE", "jar" );
-            version = PomUtils.getReleaseVersion( artifact, m_source, m_remoteRepos, m_localRepo, null );
+            // keep going, so the other resolution tasks can finish
+            jar.setError( new MojoExecutionException( "Problem resolving release version of " + jar.getGroupId()
+                + ':' + jar.getArtifactId(), e ) );
         }
     }
 
     /**
-     * Add compile-time dependency to get the jarfile, mark it optional so it's not included in transitive dependencies
+     * Add compile-time dependencies to get the jarfiles, mark them optional so they're not included in transitive
+     * dependencies
      * 
+     * @param jars jars to embed
      * @throws MojoExecutionException
      */
-    private void updatePomDependencies()
+    private void updatePomDependencies( List jars )
         throws MojoExecutionException
     {
         Pom pom;
@@ -185,20 +377,25 @@ public class EmbedJarMojo extends AbstractMojo
             throw new MojoExecutionException( "Cannot embed jar inside non-bundle project" );
         }
 
-        // new dependency to fetch the jarfile
-        Dependency dependency = new Dependency();
-        dependency.setGroupId( groupId );
-        dependency.setArtifactId( artifactId );
-        dependency.setVersion( version );
-        dependency.setScope( Artifact.SCOPE_COMPILE );
+        for( Iterator i = jars.iterator(); i.hasNext(); )
+        {
+            EmbeddedJar jar = (EmbeddedJar) i.next();
+
+            // new dependency to fetch the jarfile
+            Dependency dependency = new Dependency();
+            dependency.setGroupId( jar.getGroupId() );
+            dependency.setArtifactId( jar.getArtifactId() );
+            dependency.setVersion( jar.getVersion() );
+            dependency.setScope( Artifact.SCOPE_COMPILE );
 
-        // limit transitive nature
-        dependency.setOptional( true );
+            // limit transitive nature
+            dependency.setOptional( true );
 
-        String id = groupId + ':' + artifactId + ':' + version;
-        getLog().info( "Embedding " + id + " in " + pom );
+            String id = jar.getGroupId() + ':' + jar.getArtifactId() + ':' + jar.getVersion();
+            getLog().info( "Embedding " + id + " in " + pom );
 
-        pom.addDependency( dependency, overwrite );
+            pom.addDependency( dependency, overwrite );
+        }
 
         try
         {
@@ -211,11 +408,12 @@ public class EmbedJarMojo extends AbstractMojo
     }
 
     /**
-     * Add Bnd instructions to embed jarfile, and update -exportcontents directive if necessary
+     * Add Bnd instructions to embed jarfiles, and update -exportcontents directive if necessary
      * 
+     * @param jars jars to embed
      * @throws MojoExecutionException
      */
-    private void updateBndInstructions()
+    private void updateBndInstructions( List jars )
         throws MojoExecutionException
     {
         Bnd bnd;
@@ -229,12 +427,13 @@ public class EmbedJarMojo extends AbstractMojo
             throw new MojoExecutionException( "Problem reading Bnd file: " + targetDirectory + "/osgi.bnd" );
         }
 
-        final String embedKey = artifactId + ";groupId=" + groupId;
-
-        String embedDependency = bnd.getInstruction( "Embed-Dependency" );
-        embedDependency = addEmbedClause( embedKey, embedDependency );
+        BndHeader embedDependency = new BndHeader( bnd.getInstruction( "Embed-Dependency" ) );
+        for( Iterator i = jars.iterator(); i.hasNext(); )
+        {
+            addEmbedClause( embedDependency, (EmbeddedJar) i.next() );
+        }
 
-        bnd.setInstruction( "Embed-Dependency", embedDependency, true );
+        bnd.setInstruction( "Embed-Dependency", embedDependency.toString(), true );
 
         if( exportContents != null )
         {
@@ -252,37 +451,102 @@ public class EmbedJarMojo extends AbstractMojo
     }
 
     /**
-     * @param embedKey partial clause identifying jarfile to embed
-     * @param embedDependency comma separated list of clauses
-     * @return updated Embed-Dependency instruction
+     * @param embedDependency parsed Embed-Dependency instruction
+     * @param jar jar to embed
+     */
+    private void addEmbedClause( BndHeader embedDependency, EmbeddedJar jar )
+    {
+        // remove any clauses matching the one we're adding
+        embedDependency.removeClauses( jar.getArtifactId(), "groupId", jar.getGroupId() );
+
+        // add the new clause
+        embedDependency.addClause( jar.getArtifactId() + ";groupId=" + jar.getGroupId() + ";inline=" + unpack );
+    }
+
+    /**
+     * Coordinates of a jar to embed, along with any problem resolving its version
      */
-    private String addEmbedClause( String embedKey, String embedDependency )
+    private static final class EmbeddedJar
     {
-        final String embedClause = embedKey + ";inline=" + unpack;
+        /**
+         * The groupId of the jar
+         */
+        private final String m_groupId;
+
+        /**
+         * The artifactId of the jar
+         */
+        private final String m_artifactId;
+
+        /**
+         * The version of the jar, may be null until resolved
+         */
+        private String m_version;
+
+        /**
+         * Problem resolving the version
+         */
+        private MojoExecutionException m_error;
+
+        /**
+         * @param groupId the groupId, if empty it is assumed to be the same as the artifactId
+         * @param artifactId the artifactId
+         * @param version the version, may be empty
+         */
+        public EmbeddedJar( String groupId, String artifactId, String version )
+        {
+            // this is a common assumption
+            m_groupId = PomUtils.isEmpty( groupId ) ? artifactId.trim() : groupId.trim();
+            m_artifactId = artifactId.trim();
+            m_version = version;
+        }
 
-        if( null == embedDependency )
+        /**
+         * @return the groupId
+         */
+        public String getGroupId()
         {
-            return embedClause;
+            return m_groupId;
         }
 
-        StringBuffer buf = new StringBuffer();
+        /**
+         * @return the artifactId
+         */
+        public String getArtifactId()
+        {
+            return m_artifactId;
+        }
 
-        String[] clauses = embedDependency.split( "," );
-        for( int i = 0; i < clauses.length; i++ )
+        /**
+         * @return the version
+         */
+        public synchronized String getVersion()
         {
-            final String c = clauses[i].trim();
+            return m_version;
+        }
 
-            // remove any clauses matching the one we're adding
-            if( c.length() > 0 && !c.startsWith( embedKey ) )
-            {
-                buf.append( c );
-                buf.append( ',' );
-            }
+        /**
+         * @param version the resolved version
+         */
+        public synchronized void setVersion( String version )
+        {
+            m_version = version;
         }
 
-        // add the new clause
-        buf.append( embedClause );
+        /**
+         * @return problem resolving the version, null if there was none
+         */
+        public synchronized MojoExecutionException getError()
+        {
+            return m_error;
+        }
 
-        return buf.toString();
+        /**
+         * @param error problem resolving the version
+         */
+        public synchronized void setError( MojoExecutionException error )
+        {
+            m_error = error;
+        }
     }
 }
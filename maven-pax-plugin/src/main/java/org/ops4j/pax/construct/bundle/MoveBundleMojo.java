@@ -18,14 +18,14 @@ package org.ops4j.pax.construct.bundle;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Iterator;
 
-import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.util.FileUtils;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.DirUtils;
-import org.ops4j.pax.construct.util.PomIterator;
+import org.ops4j.pax.construct.util.PomRefactoring;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
 
@@ -42,6 +42,7 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  * @requiresProject false
  */
 public class MoveBundleMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * A directory in the same project tree.
@@ -59,7 +60,7 @@ public class MoveBundleMojo extends AbstractMojo
     private File targetDirectory;
 
     /**
-     * The artifactId or symbolic-name of the bundle.
+     * The artifactId or symbolic-name of the bundle, use a comma-separated list to move several bundles at once.
      * 
      * @parameter expression="${bundleName}"
      * @required
@@ -111,9 +112,39 @@ public class MoveBundleMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
+        throws MojoExecutionException
+    {
+        // repair all references in one pass over the project tree
+        PomRefactoring refactoring = new PomRefactoring( baseDirectory );
+
+        String[] names = bundleName.split( "," );
+        for( int i = 0; i < names.length; i++ )
+        {
+            moveBundle( names[i].trim(), refactoring );
+        }
+
+        refactoring.apply( getLog() );
+    }
+
+    /**
+     * @param pathOrName either a path, or an artifactId or symbolic-name
+     * @param refactoring collects references to update
+     * @throws MojoExecutionException
+     */
+    private void moveBundle( String pathOrName, PomRefactoring refactoring )
         throws MojoExecutionException
     {
-        Pom oldBundlePom = locateBundlePom( baseDirectory, bundleName );
+        Pom oldBundlePom = locateBundlePom( baseDirectory, pathOrName );
 
         File oldBundleDir = oldBundlePom.getBasedir();
 
@@ -130,7 +161,7 @@ public class MoveBundleMojo extends AbstractMojo
             Pom newBundlePom = newModulesPom.getModulePom( oldBundleDir.getName() );
             if( null != newBundlePom )
             {
-                changeBundleGroup( newBundlePom, newGroupId );
+                changeBundleGroup( newBundlePom, newGroupId, refactoring );
             }
         }
     }
@@ -184,7 +215,7 @@ public class MoveBundleMojo extends AbstractMojo
             }
             catch( IOException e )
             {
-                throw new MojoExecutionException( "Cannot move bundle " + bundleName + " to " + targetDirectory );
+                throw new MojoExecutionException( "Cannot move bundle " + oldBundleDir + " to " + targetDirectory );
             }
         }
 
@@ -242,12 +273,13 @@ public class MoveBundleMojo extends AbstractMojo
     }
 
     /**
-     * Update the bundle POM and any references to the bundle in the complete Maven project tree
+     * Update the bundle POM and queue updates to any references to the bundle in the Maven project tree
      * 
      * @param bundlePom bundle POM from the new directory
      * @param newGroupId groupId based on the new location
+     * @param refactoring collects references to update
      */
-    private void changeBundleGroup( Pom bundlePom, String newGroupId )
+    private void changeBundleGroup( Pom bundlePom, String newGroupId, PomRefactoring refactoring )
     {
         try
         {
@@ -256,47 +288,11 @@ public class MoveBundleMojo extends AbstractMojo
             bundlePom.setGroupId( newGroupId );
             bundlePom.write();
 
-            for( Iterator i = new PomIterator( bundlePom.getBasedir() ); i.hasNext(); )
-            {
-                Pom pom = (Pom) i.next();
-                if( !pom.equals( bundlePom ) )
-                {
-                    updateBundleReferences( pom, oldGroupId, bundlePom.getGroupId(), bundlePom.getArtifactId() );
-                }
-            }
+            refactoring.updateDependencyGroup( oldGroupId, bundlePom.getArtifactId(), bundlePom.getGroupId() );
         }
         catch( IOException e )
         {
             getLog().warn( "Unable to update bundle groupId to " + newGroupId );
         }
     }
-
-    /**
-     * Update any references (ie. dependencies, dependencyManagement) to use the new bundle group id
-     * 
-     * @param pom a Maven POM in the project tree
-     * @param oldGroupId old bundle group id
-     * @param newGroupId new bundle group id
-     * @param artifactId bundle artifact id
-     */
-    private void updateBundleReferences( Pom pom, String oldGroupId, String newGroupId, String artifactId )
-    {
-        Dependency dependency = new Dependency();
-        dependency.setGroupId( oldGroupId );
-        dependency.setArtifactId( artifactId );
-
-        if( pom.updateDependencyGroup( dependency, newGroupId ) )
-        {
-            getLog().info( "Updating " + newGroupId + ':' + artifactId + " in " + pom );
-
-            try
-            {
-                pom.write();
-            }
-            catch( IOException e )
-            {
-                getLog().warn( "Problem writing Maven POM: " + pom.getFile() );
-            }
-        }
-    }
 }
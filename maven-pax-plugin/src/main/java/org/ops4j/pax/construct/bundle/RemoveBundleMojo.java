@@ -18,13 +18,16 @@ package org.ops4j.pax.construct.bundle;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
-import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.util.FileUtils;
-import org.ops4j.pax.construct.util.PomIterator;
+import org.ops4j.pax.construct.util.BuildStats;
+import org.ops4j.pax.construct.util.PomRefactoring;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
 
 /**
@@ -40,6 +43,7 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  * @requiresProject false
  */
 public class RemoveBundleMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * A directory in the same project tree.
@@ -49,7 +53,7 @@ public class RemoveBundleMojo extends AbstractMojo
     private File baseDirectory;
 
     /**
-     * The artifactId or symbolic-name of the bundle.
+     * The artifactId or symbolic-name of the bundle, use a comma-separated list to remove several bundles at once.
      * 
      * @parameter expression="${bundleName}"
      * @required
@@ -67,31 +71,56 @@ public class RemoveBundleMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
-        Pom bundlePom = MoveBundleMojo.locateBundlePom( baseDirectory, bundleName );
+        List bundlePoms = new ArrayList();
 
-        // protect against removing the wrong directory
-        if( "pom".equals( bundlePom.getPackaging() ) )
+        String[] names = bundleName.split( "," );
+        for( int i = 0; i < names.length; i++ )
         {
-            throw new MojoExecutionException( "Ignoring multi-module project " + bundleName );
+            Pom bundlePom = MoveBundleMojo.locateBundlePom( baseDirectory, names[i].trim() );
+
+            // protect against removing the wrong directory
+            if( "pom".equals( bundlePom.getPackaging() ) )
+            {
+                throw new MojoExecutionException( "Ignoring multi-module project " + names[i].trim() );
+            }
+
+            bundlePoms.add( bundlePom );
         }
 
         if( repair )
         {
-            for( Iterator i = new PomIterator( baseDirectory ); i.hasNext(); )
+            // repair all references in one pass over the project tree
+            PomRefactoring refactoring = new PomRefactoring( baseDirectory );
+            for( Iterator i = bundlePoms.iterator(); i.hasNext(); )
             {
-                Pom pom = (Pom) i.next();
-                if( !pom.equals( bundlePom ) )
-                {
-                    removeBundleReferences( pom, bundlePom );
-                }
+                Pom bundlePom = (Pom) i.next();
+
+                refactoring.ignore( bundlePom );
+                refactoring.removeDependency( bundlePom.getGroupId(), bundlePom.getArtifactId() );
             }
+            refactoring.apply( getLog() );
         }
 
         // now do the actual removal work
-        dropBundleOwnership( bundlePom );
-        removeBundleFiles( bundlePom );
+        for( Iterator i = bundlePoms.iterator(); i.hasNext(); )
+        {
+            Pom bundlePom = (Pom) i.next();
+
+            dropBundleOwnership( bundlePom );
+            removeBundleFiles( bundlePom );
+        }
     }
 
     /**
@@ -137,31 +166,4 @@ public class RemoveBundleMojo extends AbstractMojo
             getLog().warn( "Unable to remove directory " + bundleDir, e );
         }
     }
-
-    /**
-     * Remove any references (ie. dependencies, dependencyManagement) to the bundle artifact
-     * 
-     * @param pom a Maven POM in the project tree
-     * @param bundlePom the Maven POM for the bundle
-     */
-    private void removeBundleReferences( Pom pom, Pom bundlePom )
-    {
-        Dependency dependency = new Dependency();
-        dependency.setGroupId( bundlePom.getGroupId() );
-        dependency.setArtifactId( bundlePom.getArtifactId() );
-
-        if( pom.removeDependency( dependency ) )
-        {
-            getLog().info( "Removing " + bundlePom + " from " + pom );
-
-            try
-            {
-                pom.write();
-            }
-            catch( IOException e )
-            {
-                getLog().warn( "Problem writing Maven POM: " + pom.getFile() );
-            }
-        }
-    }
 }
@@ -29,6 +29,7 @@ import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.archiver.Archiver;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
@@ -36,6 +37,7 @@ import org.codehaus.plexus.archiver.manager.NoSuchArchiverException;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.DirUtils;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
@@ -51,6 +53,7 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  * @aggregator true
  */
 public class CloneMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * Component factory for various archivers
@@ -143,6 +146,16 @@ public class CloneMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
         // general purpose Pax-Construct script
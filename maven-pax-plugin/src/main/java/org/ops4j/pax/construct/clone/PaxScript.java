@@ -30,6 +30,11 @@ public interface PaxScript
      */
     static String CREATE_PROJECT = "create-project";
 
+    /**
+     * Create a new module, or a tree of modules
+     */
+    static String CREATE_MODULE = "create-module";
+
     /**
      * Create a new OSGi bundle
      */
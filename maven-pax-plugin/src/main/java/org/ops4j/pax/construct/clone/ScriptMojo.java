@@ -0,0 +1,198 @@
+package org.ops4j.pax.construct.clone;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.factory.ArtifactFactory;
+import org.apache.maven.artifact.installer.ArtifactInstallationException;
+import org.apache.maven.artifact.installer.ArtifactInstaller;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.ops4j.pax.construct.util.BuildStats;
+
+/**
+ * Replays a Pax-Construct script, such as one produced by pax:clone, inside a single Maven session
+ * 
+ * <code><pre>
+ *   mvn pax:script -Dscript=...
+ * </pre></code>
+ * 
+ * @goal script
+ * @aggregator true
+ * 
+ * @requiresProject false
+ */
+public class ScriptMojo extends AbstractMojo
+    implements BuildStats.Goal
+{
+    /**
+     * Component factory for Maven artifacts
+     * 
+     * @component
+     */
+    private ArtifactFactory m_factory;
+
+    /**
+     * Component for installing Maven artifacts
+     * 
+     * @component
+     */
+    private ArtifactInstaller m_installer;
+
+    /**
+     * The local Maven repository for the containing project.
+     * 
+     * @parameter expression="${localRepository}"
+     * @required
+     */
+    private ArtifactRepository m_localRepo;
+
+    /**
+     * The current Maven session.
+     * 
+     * @parameter expression="${session}"
+     * @required
+     * @readonly
+     */
+    private MavenSession m_session;
+
+    /**
+     * The current Maven project (will be Maven super-POM if no existing project)
+     * 
+     * @parameter expression="${project}"
+     * @required
+     * @readonly
+     */
+    private MavenProject m_project;
+
+    /**
+     * Descriptor for this plugin, used to find the other Pax-Construct mojos.
+     * 
+     * @parameter expression="${plugin}"
+     * @required
+     * @readonly
+     */
+    private PluginDescriptor m_pluginDescriptor;
+
+    /**
+     * The Pax-Construct script to replay, either a UNIX shell script or a Windows batch file.
+     * 
+     * @parameter expression="${script}"
+     * @required
+     */
+    private File script;
+
+    /**
+     * When true, skip installation of any archetype fragments used by the script.
+     * 
+     * @parameter expression="${noInstall}"
+     */
+    private boolean noInstall;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        ScriptPlayer player = new ScriptPlayer( this, m_session, m_project, m_pluginDescriptor );
+        List lines = ScriptPlayer.readScript( script, script.getAbsoluteFile().getParentFile() );
+
+        int count = 0;
+        for( Iterator i = lines.iterator(); i.hasNext(); )
+        {
+            String[] tokens = ScriptPlayer.tokenize( (String) i.next() );
+            if( tokens.length == 0 )
+            {
+                continue;
+            }
+
+            if( tokens[0].startsWith( "pax-" ) )
+            {
+                player.runPaxCommand( tokens );
+                count++;
+            }
+            else if( tokens.length > 2 && "mvn".equals( tokens[0] ) && "install:install-file".equals( tokens[2] ) )
+            {
+                if( !noInstall )
+                {
+                    installFragment( tokens );
+                }
+            }
+        }
+
+        getLog().info( "Replayed " + count + " Pax-Construct commands from " + script );
+    }
+
+    /**
+     * Install an archetype fragment into the local repository, replaces the "mvn install:install-file" script command
+     * 
+     * @param tokens script tokens, starting with the mvn command
+     * @throws MojoExecutionException
+     */
+    private void installFragment( String[] tokens )
+        throws MojoExecutionException
+    {
+        Properties properties = new Properties();
+        for( int i = 3; i < tokens.length; i++ )
+        {
+            if( tokens[i].startsWith( "-D" ) )
+            {
+                ScriptPlayer.addMavenProperty( properties, tokens[i] );
+            }
+        }
+
+        String groupId = properties.getProperty( "groupId" );
+        String artifactId = properties.getProperty( "artifactId" );
+        String version = properties.getProperty( "version" );
+        String packaging = properties.getProperty( "packaging", "jar" );
+        File file = new File( properties.getProperty( "file" ) );
+
+        Artifact artifact = m_factory.createBuildArtifact( groupId, artifactId, version, packaging );
+
+        try
+        {
+            getLog().info( "Installing archetype fragment " + artifact );
+            m_installer.install( file, artifact, m_localRepo );
+        }
+        catch( ArtifactInstallationException e )
+        {
+            throw new MojoExecutionException( "Unable to install archetype fragment " + file, e );
+        }
+    }
+}
@@ -0,0 +1,640 @@
+package org.ops4j.pax.construct.clone;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.PluginParameterExpressionEvaluator;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.Parameter;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.path.PathTranslator;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluator;
+import org.codehaus.plexus.component.repository.ComponentRequirement;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.codehaus.plexus.configuration.PlexusConfiguration;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
+import org.ops4j.pax.construct.util.ReflectMojo;
+import org.ops4j.pax.construct.util.StreamFactory;
+
+/**
+ * Replays Pax-Construct commands inside the current Maven session, by creating and configuring the Pax-Construct
+ * mojos directly rather than asking the plugin manager to run them (which is not supported from Maven 3 onwards)
+ */
+public class ScriptPlayer
+{
+    /**
+     * Short option mappings per Pax-Construct command, read from the command definitions of the Pax-Construct scripts
+     */
+    private static final Map SHORT_OPTIONS = new HashMap();
+
+    /**
+     * Matches a 'key' : 'value' entry in a script command definition
+     */
+    private static final Pattern OPTION_ENTRY = Pattern.compile( "'(key|name)'\\s*:\\s*'([^']*)'" );
+
+    /**
+     * Matches a parameter expression that refers to a single property
+     */
+    private static final Pattern PROPERTY_EXPRESSION = Pattern.compile( "\\$\\{([^}]+)\\}" );
+
+    /**
+     * Mojo replaying the commands
+     */
+    private final AbstractMojo m_mojo;
+
+    /**
+     * The current Maven session
+     */
+    private final MavenSession m_session;
+
+    /**
+     * The current Maven project
+     */
+    private final MavenProject m_project;
+
+    /**
+     * Descriptor for this plugin, used to find the other Pax-Construct mojos
+     */
+    private final PluginDescriptor m_pluginDescriptor;
+
+    /**
+     * @param mojo mojo replaying the commands
+     * @param session the current Maven session
+     * @param project the current Maven project
+     * @param pluginDescriptor descriptor for this plugin
+     */
+    public ScriptPlayer( AbstractMojo mojo, MavenSession session, MavenProject project,
+        PluginDescriptor pluginDescriptor )
+    {
+        m_mojo = mojo;
+        m_session = session;
+        m_project = project;
+        m_pluginDescriptor = pluginDescriptor;
+    }
+
+    /**
+     * Replay all Pax-Construct commands in a script, other lines (such as comments and messages) are ignored
+     * 
+     * @param script Pax-Construct script
+     * @param scriptDir directory used in place of the script directory
+     * @return number of replayed commands
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    public int play( File script, File scriptDir )
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        int count = 0;
+        for( Iterator i = readScript( script, scriptDir ).iterator(); i.hasNext(); )
+        {
+            String[] tokens = tokenize( (String) i.next() );
+            if( tokens.length > 0 && tokens[0].startsWith( "pax-" ) )
+            {
+                runPaxCommand( tokens );
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param script Pax-Construct script, either a UNIX shell script or a Windows batch file
+     * @param scriptDir directory used in place of the script directory
+     * @return script lines, with any script directory references replaced by the given directory
+     * @throws MojoExecutionException
+     */
+    static List readScript( File script, File scriptDir )
+        throws MojoExecutionException
+    {
+        List lines = new ArrayList();
+
+        String dirName = scriptDir.getAbsolutePath();
+
+        BufferedReader reader = null;
+        try
+        {
+            reader = new BufferedReader( StreamFactory.newPlatformReader( script ) );
+            for( String line = reader.readLine(); line != null; line = reader.readLine() )
+            {
+                line = line.trim();
+                if( line.startsWith( "call " ) )
+                {
+                    // batch files need to use call
+                    line = line.substring( 5 ).trim();
+                }
+
+                line = StringUtils.replace( line, "${_SCRIPTDIR_}", dirName );
+                line = StringUtils.replace( line, "%_SCRIPTDIR_%", dirName );
+
+                lines.add( line );
+            }
+        }
+        catch( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to read script " + script, e );
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+
+        return lines;
+    }
+
+    /**
+     * Split a script line into tokens, using whitespace as a separator and removing any quotes
+     * 
+     * @param line script line
+     * @return sequence of tokens
+     */
+    static String[] tokenize( String line )
+    {
+        List tokens = new ArrayList();
+
+        StringBuffer token = null;
+        boolean quoted = false;
+
+        for( int i = 0; i < line.length(); i++ )
+        {
+            char c = line.charAt( i );
+            if( '\"' == c )
+            {
+                quoted = !quoted;
+                if( null == token )
+                {
+                    // keep empty quoted values
+                    token = new StringBuffer();
+                }
+            }
+            else if( Character.isWhitespace( c ) && !quoted )
+            {
+                if( null != token )
+                {
+                    tokens.add( token.toString() );
+                    token = null;
+                }
+            }
+            else
+            {
+                if( null == token )
+                {
+                    token = new StringBuffer();
+                }
+                token.append( c );
+            }
+        }
+
+        if( null != token )
+        {
+            tokens.add( token.toString() );
+        }
+
+        return (String[]) tokens.toArray( new String[tokens.size()] );
+    }
+
+    /**
+     * Find the short options of a command in the script command definitions, which are copied into the plugin at
+     * build time so they always match the pax-* scripts
+     * 
+     * @param command Pax-Construct command
+     * @return map of short option to Maven property, null if the command is unknown
+     * @throws MojoExecutionException
+     */
+    private static Map getShortOptions( String command )
+        throws MojoExecutionException
+    {
+        synchronized( SHORT_OPTIONS )
+        {
+            if( SHORT_OPTIONS.containsKey( command ) )
+            {
+                return (Map) SHORT_OPTIONS.get( command );
+            }
+
+            Map options = null;
+
+            InputStream in = ScriptPlayer.class.getResourceAsStream( "commands/" + command );
+            if( null != in )
+            {
+                try
+                {
+                    options = parseShortOptions( IOUtil.toString( in ) );
+                }
+                catch( IOException e )
+                {
+                    throw new MojoExecutionException( "Unable to read definition of pax-" + command );
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                }
+            }
+
+            SHORT_OPTIONS.put( command, options );
+
+            return options;
+        }
+    }
+
+    /**
+     * @param definition script command definition, a Velocity list of option maps
+     * @return map of short option to Maven property
+     */
+    private static Map parseShortOptions( String definition )
+    {
+        Map options = new HashMap();
+
+        String[] entries = definition.split( "\\}" );
+        for( int i = 0; i < entries.length; i++ )
+        {
+            String key = null;
+            String name = null;
+
+            Matcher matcher = OPTION_ENTRY.matcher( entries[i] );
+            while( matcher.find() )
+            {
+                if( "key".equals( matcher.group( 1 ) ) )
+                {
+                    key = matcher.group( 2 );
+                }
+                else
+                {
+                    name = matcher.group( 2 );
+                }
+            }
+
+            if( null != key && null != name )
+            {
+                options.put( key, name );
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * Convert the command-line options of a script command into Maven properties
+     * 
+     * @param command Pax-Construct command
+     * @param tokens script tokens, starting with the command name
+     * @return Maven properties for the command
+     * @throws MojoExecutionException
+     */
+    private static Properties getCommandProperties( String command, String[] tokens )
+        throws MojoExecutionException
+    {
+        Properties properties = new Properties();
+
+        Map shortOptions = getShortOptions( command );
+        boolean mavenOptions = false;
+
+        for( int i = 1; i < tokens.length; i++ )
+        {
+            String token = tokens[i];
+            if( "--".equals( token ) )
+            {
+                mavenOptions = true;
+            }
+            else if( token.startsWith( "-D" ) )
+            {
+                addMavenProperty( properties, token );
+            }
+            else if( mavenOptions )
+            {
+                // other Maven options (such as -N) don't matter when running inside the current session
+                continue;
+            }
+            else if( "-o".equals( token ) )
+            {
+                properties.setProperty( "overwrite", "true" );
+            }
+            else if( token.length() == 2 && token.charAt( 0 ) == '-' && null != shortOptions
+                && shortOptions.containsKey( token.substring( 1 ) ) && i + 1 < tokens.length )
+            {
+                properties.setProperty( (String) shortOptions.get( token.substring( 1 ) ), tokens[++i] );
+            }
+            else
+            {
+                throw new MojoExecutionException( "Unsupported option " + token + " for pax-" + command );
+            }
+        }
+
+        return properties;
+    }
+
+    /**
+     * @param properties Maven properties
+     * @param token Maven property setting, such as -Dflag or -Doption=value
+     */
+    static void addMavenProperty( Properties properties, String token )
+    {
+        int split = token.indexOf( '=' );
+        if( split > 0 )
+        {
+            properties.setProperty( token.substring( 2, split ), token.substring( split + 1 ) );
+        }
+        else
+        {
+            properties.setProperty( token.substring( 2 ), "true" );
+        }
+    }
+
+    /**
+     * Run a Pax-Construct command inside the current Maven session
+     * 
+     * @param tokens script tokens, starting with the command name
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    public void runPaxCommand( String[] tokens )
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        String command = tokens[0].startsWith( "pax-" ) ? tokens[0].substring( 4 ) : "";
+
+        MojoDescriptor mojoDescriptor = m_pluginDescriptor.getMojo( command );
+        if( null == mojoDescriptor || "script".equals( command ) )
+        {
+            throw new MojoExecutionException( "Unsupported command " + tokens[0] );
+        }
+
+        Properties commandProperties = getCommandProperties( command, tokens );
+
+        AbstractMojo mojo = newMojo( mojoDescriptor );
+        configureMojo( mojo, mojoDescriptor, commandProperties );
+
+        m_mojo.getLog().info( StringUtils.join( tokens, " " ) );
+        mojo.execute();
+    }
+
+    /**
+     * @param mojoDescriptor descriptor of a Pax-Construct mojo
+     * @return new mojo instance, sharing the log and plugin context of the replaying mojo
+     * @throws MojoExecutionException
+     */
+    private AbstractMojo newMojo( MojoDescriptor mojoDescriptor )
+        throws MojoExecutionException
+    {
+        AbstractMojo mojo;
+        try
+        {
+            // all Pax-Construct mojos live in this plugin, so share its class loader
+            Class clazz = Class.forName( mojoDescriptor.getImplementation(), true, getClass().getClassLoader() );
+            mojo = (AbstractMojo) clazz.newInstance();
+        }
+        catch( ClassNotFoundException e )
+        {
+            throw new MojoExecutionException( "Unable to load " + mojoDescriptor.getImplementation(), e );
+        }
+        catch( InstantiationException e )
+        {
+            throw new MojoExecutionException( "Unable to create " + mojoDescriptor.getImplementation(), e );
+        }
+        catch( IllegalAccessException e )
+        {
+            throw new MojoExecutionException( "Unable to create " + mojoDescriptor.getImplementation(), e );
+        }
+
+        mojo.setLog( m_mojo.getLog() );
+        mojo.setPluginContext( m_mojo.getPluginContext() );
+
+        return mojo;
+    }
+
+    /**
+     * Inject components and parameters into a new mojo, parameters take their values from the command properties
+     * before falling back to the usual Maven expressions and default values
+     * 
+     * @param mojo new mojo instance
+     * @param mojoDescriptor descriptor of the mojo
+     * @param commandProperties Maven properties for the command
+     * @throws MojoExecutionException
+     */
+    private void configureMojo( AbstractMojo mojo, MojoDescriptor mojoDescriptor, Properties commandProperties )
+        throws MojoExecutionException
+    {
+        PlexusContainer container = m_session.getContainer();
+
+        List requirements = mojoDescriptor.getRequirements();
+        for( Iterator i = requirements.iterator(); i.hasNext(); )
+        {
+            ComponentRequirement requirement = (ComponentRequirement) i.next();
+            setMojoField( mojo, requirement.getFieldName(), lookup( container, requirement ) );
+        }
+
+        ExpressionEvaluator evaluator = newEvaluator( container, mojoDescriptor );
+        PlexusConfiguration configuration = mojoDescriptor.getMojoConfiguration();
+
+        List parameters = mojoDescriptor.getParameters();
+        for( Iterator i = parameters.iterator(); i.hasNext(); )
+        {
+            Parameter parameter = (Parameter) i.next();
+
+            PlexusConfiguration setting = configuration.getChild( parameter.getName(), false );
+            if( null == setting )
+            {
+                continue;
+            }
+
+            Object value = evaluate( evaluator, setting.getValue( null ), commandProperties );
+            if( null == value )
+            {
+                value = evaluate( evaluator, setting.getAttribute( "default-value", null ), commandProperties );
+            }
+
+            if( null != value )
+            {
+                setMojoField( mojo, parameter.getName(), convert( evaluator, parameter, value ) );
+            }
+            else if( parameter.isRequired() )
+            {
+                throw new MojoExecutionException( "Missing parameter " + parameter.getName() + " for pax-"
+                    + mojoDescriptor.getGoal() );
+            }
+        }
+    }
+
+    /**
+     * @param container Plexus container
+     * @param requirement component requirement
+     * @return the required component
+     * @throws MojoExecutionException
+     */
+    private static Object lookup( PlexusContainer container, ComponentRequirement requirement )
+        throws MojoExecutionException
+    {
+        try
+        {
+            if( StringUtils.isNotEmpty( requirement.getRoleHint() ) )
+            {
+                return container.lookup( requirement.getRole(), requirement.getRoleHint() );
+            }
+            return container.lookup( requirement.getRole() );
+        }
+        catch( ComponentLookupException e )
+        {
+            throw new MojoExecutionException( "Unable to find component " + requirement.getRole(), e );
+        }
+    }
+
+    /**
+     * @param container Plexus container
+     * @param mojoDescriptor descriptor of the mojo
+     * @return standard Maven evaluator for mojo parameter expressions
+     * @throws MojoExecutionException
+     */
+    private ExpressionEvaluator newEvaluator( PlexusContainer container, MojoDescriptor mojoDescriptor )
+        throws MojoExecutionException
+    {
+        PathTranslator pathTranslator;
+        try
+        {
+            pathTranslator = (PathTranslator) container.lookup( PathTranslator.ROLE );
+        }
+        catch( ComponentLookupException e )
+        {
+            throw new MojoExecutionException( "Unable to find component " + PathTranslator.ROLE, e );
+        }
+
+        Logger logger = new ConsoleLogger( Logger.LEVEL_WARN, m_pluginDescriptor.getGoalPrefix() );
+
+        // this constructor is available in Maven 2 and still supported by Maven 3
+        return new PluginParameterExpressionEvaluator( m_session, new MojoExecution( mojoDescriptor ), pathTranslator,
+            logger, m_project, m_session.getExecutionProperties() );
+    }
+
+    /**
+     * @param evaluator standard Maven evaluator
+     * @param expression parameter expression, may be null
+     * @param commandProperties Maven properties for the command
+     * @return evaluated expression, null if there is no value
+     * @throws MojoExecutionException
+     */
+    private static Object evaluate( ExpressionEvaluator evaluator, String expression, Properties commandProperties )
+        throws MojoExecutionException
+    {
+        if( null == expression )
+        {
+            return null;
+        }
+
+        // command options take precedence, just like -D options on the command-line
+        Matcher matcher = PROPERTY_EXPRESSION.matcher( expression.trim() );
+        if( matcher.matches() && commandProperties.containsKey( matcher.group( 1 ) ) )
+        {
+            return commandProperties.getProperty( matcher.group( 1 ) );
+        }
+
+        try
+        {
+            return evaluator.evaluate( expression );
+        }
+        catch( ExpressionEvaluationException e )
+        {
+            throw new MojoExecutionException( "Unable to evaluate " + expression, e );
+        }
+    }
+
+    /**
+     * @param evaluator standard Maven evaluator
+     * @param parameter mojo parameter
+     * @param value evaluated parameter value
+     * @return value converted to the parameter type
+     * @throws MojoExecutionException
+     */
+    private static Object convert( ExpressionEvaluator evaluator, Parameter parameter, Object value )
+        throws MojoExecutionException
+    {
+        String type = parameter.getType();
+        if( !( value instanceof String ) || String.class.getName().equals( type ) )
+        {
+            return value;
+        }
+
+        String text = ( (String) value ).trim();
+        if( File.class.getName().equals( type ) )
+        {
+            return evaluator.alignToBaseDirectory( new File( text ) );
+        }
+        else if( "int".equals( type ) || Integer.class.getName().equals( type ) )
+        {
+            try
+            {
+                return Integer.valueOf( text );
+            }
+            catch( NumberFormatException e )
+            {
+                throw new MojoExecutionException( "Parameter " + parameter.getName() + " must be a number", e );
+            }
+        }
+        else if( "boolean".equals( type ) || Boolean.class.getName().equals( type ) )
+        {
+            return Boolean.valueOf( text );
+        }
+        else if( "java.lang.String[]".equals( type ) )
+        {
+            return StringUtils.split( text, "," );
+        }
+
+        throw new MojoExecutionException( "Unsupported type " + type + " for parameter " + parameter.getName() );
+    }
+
+    /**
+     * @param mojo new mojo instance
+     * @param name field name, may be declared by any of the mojo's classes
+     * @param value field value
+     * @throws MojoExecutionException
+     */
+    private static void setMojoField( AbstractMojo mojo, String name, Object value )
+        throws MojoExecutionException
+    {
+        for( Class clazz = mojo.getClass(); null != clazz; clazz = clazz.getSuperclass() )
+        {
+            ReflectMojo fields = new ReflectMojo( mojo, clazz );
+            if( fields.hasField( name ) )
+            {
+                fields.setField( name, value );
+                return;
+            }
+        }
+
+        throw new MojoExecutionException( "Unknown field " + name + " in " + mojo.getClass().getName() );
+    }
+}
@@ -17,15 +17,26 @@ package org.ops4j.pax.construct.lifecycle;
  */
 
 import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.AbstractCompilerMojo;
 import org.apache.maven.plugin.CompilationFailureException;
 import org.apache.maven.plugin.CompilerMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.ops4j.pax.construct.util.BuildState;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.DirUtils;
 import org.ops4j.pax.construct.util.ReflectMojo;
 
@@ -38,8 +49,10 @@ import org.ops4j.pax.construct.util.ReflectMojo;
  * @goal compile
  * @phase compile
  * @requiresDependencyResolution compile
+ * @threadSafe
  */
 public class BundleCompilerMojo extends CompilerMojo
+    implements BuildStats.Goal
 {
     /**
      * @parameter expression="${project}"
@@ -67,8 +80,43 @@ public class BundleCompilerMojo extends CompilerMojo
         throws MojoExecutionException,
         CompilationFailureException
     {
+        try
+        {
+            BuildStats.execute( this );
+        }
+        catch( MojoFailureException e )
+        {
+            // executeGoal only fails with compilation failures
+            throw (CompilationFailureException) e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
+        throws MojoExecutionException,
+        CompilationFailureException
+    {
+        File outputDir = getOutputDirectory();
+
+        // merge first, so the build state sees the effective compiler settings
         BundleCompilerMojo.mergeCompilerConfiguration( this, m_project );
 
+        BuildState buildState = BundleCompilerMojo.getBuildState( this, m_project, getCompileSourceRoots(), super
+            .getClasspathElements(), outputDir );
+
+        if( outputDir.exists() && buildState.isUpToDate() )
+        {
+            getLog().info( "Nothing to compile - sources, settings and classpath are unchanged" );
+
+            // keep reactor resolution working, as if we had compiled
+            m_project.getArtifact().setFile( outputDir );
+            return;
+        }
+
+        buildState.invalidate();
+
         try
         {
             super.execute();
@@ -76,10 +124,122 @@ public class BundleCompilerMojo extends CompilerMojo
         catch( CompilationFailureException e )
         {
             // recover cleaned metadata on failure
-            SqueakyCleanMojo.recoverMetaData( this );
+            SqueakyCleanMojo.recoverMetaData( this, m_project );
 
             throw e;
         }
+
+        buildState.save();
+    }
+
+    /**
+     * Capture the inputs to the compiler: effective compiler settings, sources, classpath and embedded bundle content,
+     * along with the class files it produced
+     * 
+     * @param mojo compiler mojo, with its configuration already merged
+     * @param project maven project
+     * @param sourceRoots compile source roots
+     * @param classpath unexpanded compile classpath
+     * @param outputDir compiler output directory
+     * @return build state for the compiler step
+     */
+    protected static BuildState getBuildState( AbstractCompilerMojo mojo, MavenProject project, List sourceRoots,
+        List classpath, File outputDir )
+    {
+        File stateFile = new File( outputDir.getParentFile(), outputDir.getName() + ".state" );
+
+        // compare the class files as well, in case the output directory was changed outside of the build
+        BuildState buildState = new BuildState( stateFile, ".class" );
+        buildState.addOutput( outputDir );
+
+        buildState.addSetting( project.getId() );
+        addCompilerSettings( buildState, mojo, project );
+
+        buildState.addPaths( sourceRoots );
+
+        for( Iterator i = classpath.iterator(); i.hasNext(); )
+        {
+            File element = new File( (String) i.next() );
+            if( !element.equals( outputDir ) )
+            {
+                buildState.addFile( element );
+
+                // expanded Bundle-ClassPath entries come from the final bundle
+                File bundle = DirUtils.locateBundle( element );
+                if( null != bundle && !bundle.equals( element ) )
+                {
+                    buildState.addFile( bundle );
+                }
+            }
+        }
+
+        return buildState;
+    }
+
+    /**
+     * Add the effective compiler configuration, which may come from parent POMs, pluginManagement or the command line
+     * 
+     * @param buildState build state for the compiler step
+     * @param mojo compiler mojo, with its configuration already merged
+     * @param project maven project
+     */
+    private static void addCompilerSettings( BuildState buildState, AbstractCompilerMojo mojo, MavenProject project )
+    {
+        buildState.addSetting( "compiler="
+            + project.getGoalConfiguration( "org.apache.maven.plugins", "maven-compiler-plugin", null, null ) );
+        buildState.addSetting( "pax=" + project.getGoalConfiguration( "org.ops4j", "maven-pax-plugin", null, null ) );
+
+        // resolved mojo parameters, this includes any -Dmaven.compiler.* overrides
+        Set names = new TreeSet();
+        Field[] fields = AbstractCompilerMojo.class.getDeclaredFields();
+        for( int i = 0; i < fields.length; i++ )
+        {
+            if( !Modifier.isStatic( fields[i].getModifiers() ) )
+            {
+                names.add( fields[i].getName() );
+            }
+        }
+
+        ReflectMojo baseMojo = new ReflectMojo( mojo, AbstractCompilerMojo.class );
+        for( Iterator i = names.iterator(); i.hasNext(); )
+        {
+            String name = (String) i.next();
+            Object value = baseMojo.getField( name );
+            if( value instanceof Map )
+            {
+                buildState.addSetting( name + '=' + new TreeMap( (Map) value ) );
+            }
+            else if( value instanceof String || value instanceof Boolean || value instanceof Number )
+            {
+                buildState.addSetting( name + '=' + value );
+            }
+        }
+
+        addCompilerProperties( buildState, project.getProperties() );
+        addCompilerProperties( buildState, System.getProperties() );
+    }
+
+    /**
+     * @param buildState build state for the compiler step
+     * @param properties project or system properties
+     */
+    private static void addCompilerProperties( BuildState buildState, Properties properties )
+    {
+        Set names = new TreeSet();
+        for( Iterator i = properties.keySet().iterator(); i.hasNext(); )
+        {
+            Object name = i.next();
+            if( name instanceof String && ( (String) name ).startsWith( "maven.compiler." ) )
+            {
+                names.add( name );
+            }
+        }
+
+        for( Iterator i = names.iterator(); i.hasNext(); )
+        {
+            String name = (String) i.next();
+            buildState.addSetting( name + '=' + properties.getProperty( name ) );
+        }
     }
 
     /**
@@ -21,8 +21,11 @@ import java.util.List;
 
 import org.apache.maven.plugin.CompilationFailureException;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.TestCompilerMojo;
 import org.apache.maven.project.MavenProject;
+import org.ops4j.pax.construct.util.BuildState;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.DirUtils;
 
 /**
@@ -34,8 +37,10 @@ import org.ops4j.pax.construct.util.DirUtils;
  * @goal testCompile
  * @phase test-compile
  * @requiresDependencyResolution test
+ * @threadSafe
  */
 public class BundleTestCompilerMojo extends TestCompilerMojo
+    implements BuildStats.Goal
 {
     /**
      * @parameter expression="${project}"
@@ -63,8 +68,40 @@ public class BundleTestCompilerMojo extends TestCompilerMojo
         throws MojoExecutionException,
         CompilationFailureException
     {
+        try
+        {
+            BuildStats.execute( this );
+        }
+        catch( MojoFailureException e )
+        {
+            // executeGoal only fails with compilation failures
+            throw (CompilationFailureException) e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
+        throws MojoExecutionException,
+        CompilationFailureException
+    {
+        File outputDir = getOutputDirectory();
+
+        // merge first, so the build state sees the effective compiler settings
         BundleCompilerMojo.mergeCompilerConfiguration( this, m_project );
 
+        BuildState buildState = BundleCompilerMojo.getBuildState( this, m_project, getCompileSourceRoots(), super
+            .getClasspathElements(), outputDir );
+
+        if( outputDir.exists() && buildState.isUpToDate() )
+        {
+            getLog().info( "Nothing to compile - test sources, settings and classpath are unchanged" );
+            return;
+        }
+
+        buildState.invalidate();
+
         try
         {
             super.execute();
@@ -72,9 +109,11 @@ public class BundleTestCompilerMojo extends TestCompilerMojo
         catch( CompilationFailureException e )
         {
             // recover cleaned metadata on failure
-            SqueakyCleanMojo.recoverMetaData( this );
+            SqueakyCleanMojo.recoverMetaData( this, m_project );
 
             throw e;
         }
+
+        buildState.save();
     }
 }
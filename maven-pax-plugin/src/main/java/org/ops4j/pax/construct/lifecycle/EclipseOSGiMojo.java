@@ -24,14 +24,19 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
-import java.util.regex.Pattern;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -49,15 +54,18 @@ import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.project.artifact.InvalidDependencyVersionException;
 import org.apache.maven.project.path.PathTranslator;
 import org.apache.maven.shared.osgi.Maven2OsgiConverter;
-import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.PrettyPrintXMLWriter;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.codehaus.plexus.util.xml.Xpp3DomWriter;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.ops4j.pax.construct.util.BuildStats;
+import org.ops4j.pax.construct.util.DependencyGraph;
 import org.ops4j.pax.construct.util.DirUtils;
 import org.ops4j.pax.construct.util.DirUtils.EntryFilter;
+import org.ops4j.pax.construct.util.FingerprintUtils;
+import org.ops4j.pax.construct.util.ParallelUtils;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.ReflectMojo;
 import org.ops4j.pax.construct.util.StreamFactory;
@@ -75,6 +83,11 @@ import org.ops4j.pax.construct.util.StreamFactory;
  */
 public class EclipseOSGiMojo extends EclipsePlugin
 {
+    /**
+     * Lookup tables for each live reactor, entries are dropped once their reactor list is no longer used
+     */
+    private static final Map SHARED_LOOKUPS = new WeakHashMap();
+
     /**
      * Component factory for Maven projects
      * 
@@ -103,6 +116,13 @@ public class EclipseOSGiMojo extends EclipsePlugin
      */
     private String fixDependencies;
 
+    /**
+     * Number of threads used to unpack imported bundles, zero or less means one per available processor.
+     *
+     * @parameter expression="${eclipseThreads}" default-value="0"
+     */
+    private int eclipseThreads;
+
     /**
      * Provide access to the private fields of the Eclipse mojo
      */
@@ -113,21 +133,38 @@ public class EclipseOSGiMojo extends EclipsePlugin
      */
     private MavenProject m_provisionProject;
 
+    /**
+     * Lookup tables for the current reactor, fetched once per execution
+     */
+    private ReactorLookup m_reactorLookup;
+
     /**
      * IDE dependencies that might be embedded inside the bundle
      */
     private List m_embeddableDependencies;
 
+    /**
+     * Lookup table from artifactId to embeddable dependency, built on demand
+     */
+    private Map m_sourceIndex;
+
     /**
      * {@inheritDoc}
      */
     public boolean setup()
         throws MojoExecutionException
     {
+        // imported bundles are generated by nested executions, which are charged to the provisioning POM
+        boolean nested = null != m_provisionProject;
+        if( !nested )
+        {
+            BuildStats.begin( this );
+        }
+
         // we don't fork eclipse goal
         setExecutedProject( project );
 
-        if( null != m_provisionProject )
+        if( nested )
         {
             enablePDE(); // imported OSGi bundle
         }
@@ -151,6 +188,8 @@ public class EclipseOSGiMojo extends EclipsePlugin
                 getLog().warn( "Unable to generate Eclipse files for project " + executedProject.getId() );
             }
 
+            BuildStats.report( this );
+
             /*
              * don't create Eclipse files for the provisioning POM itself!
              */
@@ -158,7 +197,17 @@ public class EclipseOSGiMojo extends EclipsePlugin
         }
 
         // default to normal behaviour
-        return super.setup();
+        if( super.setup() )
+        {
+            return true;
+        }
+
+        if( !nested )
+        {
+            BuildStats.report( this );
+        }
+
+        return false;
     }
 
     /**
@@ -187,6 +236,27 @@ public class EclipseOSGiMojo extends EclipsePlugin
      */
     public void writeConfiguration( IdeDependency[] deps )
         throws MojoExecutionException
+    {
+        try
+        {
+            writeProjectConfiguration( deps );
+        }
+        finally
+        {
+            // the Eclipse plugin doesn't let us wrap execute, so this is the last hook of the goal
+            if( null == m_provisionProject )
+            {
+                BuildStats.report( this );
+            }
+        }
+    }
+
+    /**
+     * @param deps resolved project dependencies, potentially with sources and javadocs
+     * @throws MojoExecutionException
+     */
+    private void writeProjectConfiguration( IdeDependency[] deps )
+        throws MojoExecutionException
     {
         if( !isPdeProject() )
         {
@@ -196,6 +266,7 @@ public class EclipseOSGiMojo extends EclipsePlugin
         else
         {
             m_embeddableDependencies = new ArrayList();
+            m_sourceIndex = null;
 
             if( null == m_provisionProject )
             {
@@ -307,7 +378,10 @@ public class EclipseOSGiMojo extends EclipsePlugin
             String id = dependency.getGroupId() + ':' + dependency.getArtifactId();
             File baseDir = executedProject.getBasedir();
 
-            if( DirUtils.findPom( baseDir, id ) != null )
+            DependencyGraph projectGraph = getReactorLookup().getProjectGraph();
+            projectGraph.addTree( baseDir );
+
+            if( null != projectGraph.findPomFile( id ) )
             {
                 return dependency;
             }
@@ -325,23 +399,119 @@ public class EclipseOSGiMojo extends EclipsePlugin
         return testDependency;
     }
 
+    /**
+     * @param dependency an IDE dependency
+     * @return true if the dependency refers to a project in the current reactor, otherwise false
+     */
     private boolean isReactorDependency( IdeDependency dependency )
     {
         // check current reactor...
-        if( reactorProjects != null )
+        return getReactorLookup().isReactorProject( dependency.getGroupId(), dependency.getArtifactId() );
+    }
+
+    /**
+     * @return lookup tables shared by all modules in the current reactor
+     */
+    private ReactorLookup getReactorLookup()
+    {
+        if( null == m_reactorLookup )
         {
+            m_reactorLookup = getSharedLookup( reactorProjects );
+        }
+        return m_reactorLookup;
+    }
+
+    /**
+     * @param reactorProjects projects in the current reactor, may be null
+     * @return lookup tables shared by all modules in the current reactor
+     */
+    private static ReactorLookup getSharedLookup( List reactorProjects )
+    {
+        if( null == reactorProjects )
+        {
+            return new ReactorLookup( Collections.EMPTY_LIST );
+        }
+
+        synchronized( SHARED_LOOKUPS )
+        {
+            // the same list instance is passed to every module in the build session, but lists from different
+            // sessions can still be equal, so make sure the lookup was built for this very instance
+            ReactorLookup lookup = (ReactorLookup) SHARED_LOOKUPS.get( reactorProjects );
+            if( null == lookup || !lookup.isFor( reactorProjects ) )
+            {
+                lookup = new ReactorLookup( reactorProjects );
+
+                // replace the key as well as the value, so the entry lives as long as this reactor
+                SHARED_LOOKUPS.remove( reactorProjects );
+                SHARED_LOOKUPS.put( reactorProjects, lookup );
+            }
+            return lookup;
+        }
+    }
+
+    /**
+     * Lookup tables used when fixing dependencies, built once per reactor and shared between its modules
+     */
+    private static class ReactorLookup
+    {
+        /**
+         * Reactor list these tables were built from, only weakly held
+         */
+        private final WeakReference m_reactor;
+
+        /**
+         * Reactor projects, stored as "groupId:artifactId"
+         */
+        private final Set m_reactorIds;
+
+        /**
+         * Dependency graph of the Maven POMs in the local file-system
+         */
+        private final DependencyGraph m_projectGraph;
+
+        /**
+         * @param reactorProjects projects in the current reactor
+         */
+        public ReactorLookup( List reactorProjects )
+        {
+            m_reactor = new WeakReference( reactorProjects );
+
+            m_reactorIds = new HashSet();
             for( Iterator i = reactorProjects.iterator(); i.hasNext(); )
             {
                 MavenProject reactorProject = (MavenProject) i.next();
-
-                if( reactorProject.getGroupId().equals( dependency.getGroupId() )
-                    && reactorProject.getArtifactId().equals( dependency.getArtifactId() ) )
-                {
-                    return true;
-                }
+                m_reactorIds.add( reactorProject.getGroupId() + ':' + reactorProject.getArtifactId() );
             }
+
+            m_projectGraph = new DependencyGraph();
+        }
+
+        /**
+         * @param reactorProjects projects in the current reactor
+         * @return true if these tables were built from the same list instance, otherwise false
+         */
+        public boolean isFor( List reactorProjects )
+        {
+            return m_reactor.get() == reactorProjects;
+        }
+
+        /**
+         * @param groupId project group id
+         * @param artifactId project artifact id
+         * @return true if the reactor contains this project, otherwise false
+         */
+        public boolean isReactorProject( String groupId, String artifactId )
+        {
+            return m_reactorIds.contains( groupId + ':' + artifactId );
+        }
+
+        /**
+         * @return dependency graph of the Maven POMs in the local file-system
+         */
+        public DependencyGraph getProjectGraph()
+        {
+            return m_projectGraph;
         }
-        return false;
     }
 
     /**
@@ -428,12 +598,35 @@ public class EclipseOSGiMojo extends EclipsePlugin
         File baseDir = executedProject.getBasedir();
         File unpackDir = new File( baseDir, tempPath );
 
+        File manifestFile = new File( baseDir, "META-INF/MANIFEST.MF" );
+        File stampFile = new File( baseDir, tempPath + ".stamp" );
+        String fingerprint = null;
+
         if( bundleFile == null || !bundleFile.exists() )
         {
             getLog().warn( "Bundle has not been built, reverting to basic behaviour" );
         }
         else
         {
+            fingerprint = getRefactoringFingerprint( bundleFile );
+            if( manifestFile.exists() && FingerprintUtils.isUpToDate( stampFile, fingerprint ) )
+            {
+                getLog().debug( "Eclipse metadata is up to date" );
+
+                // manifest is already refactored, but the Eclipse classpath has just been regenerated
+                if( unpackDir.exists() )
+                {
+                    Attributes mainAttributes = getBundleManifest( manifestFile ).getMainAttributes();
+                    addEmbeddedEntriesToEclipseClassPath( tempPath, mainAttributes.getValue( "Bundle-ClassPath" ) );
+                }
+
+                createBuildProperties( baseDir, tempPath );
+                return;
+            }
+
+            // stamp is only valid once the refactoring is complete
+            stampFile.delete();
+
             DirUtils.unpackBundle( bundleFile, unpackDir, new IncludedContentFilter( getBuildOutputDirectory() ) );
 
             moveMetadata( unpackDir, "META-INF", baseDir );
@@ -445,8 +638,40 @@ public class EclipseOSGiMojo extends EclipsePlugin
             refactorManifest = unpackDir.exists();
         }
 
-        File manifestFile = new File( baseDir, "META-INF/MANIFEST.MF" );
+        if( writeManifest( manifestFile, refactorManifest, tempPath ) && null != fingerprint )
+        {
+            FingerprintUtils.saveStamp( stampFile, fingerprint );
+        }
+
+        createBuildProperties( baseDir, tempPath );
+    }
 
+    /**
+     * @param bundleFile the packaged bundle
+     * @return fingerprint of the bundle contents and project settings that affect the refactored metadata
+     */
+    private String getRefactoringFingerprint( File bundleFile )
+    {
+        StringBuffer fingerprint = new StringBuffer();
+
+        fingerprint.append( FingerprintUtils.digest( bundleFile ) );
+        fingerprint.append( ';' ).append( executedProject.getId() );
+        fingerprint.append( ';' ).append( getEclipseProjectName( executedProject, true ) );
+        fingerprint.append( ';' ).append( getBuildOutputDirectory() );
+
+        return fingerprint.toString();
+    }
+
+    /**
+     * Update the local bundle manifest so Eclipse can use it
+     * 
+     * @param manifestFile the local bundle manifest
+     * @param refactorManifest true if the Bundle-ClassPath should be refactored to point to unpacked contents
+     * @param tempPath where the additional bundle contents were unpacked
+     * @return true if the manifest was written, otherwise false
+     */
+    private boolean writeManifest( File manifestFile, boolean refactorManifest, String tempPath )
+    {
         Manifest manifest = getBundleManifest( manifestFile );
         Attributes mainAttributes = manifest.getMainAttributes();
 
@@ -477,13 +702,15 @@ public class EclipseOSGiMojo extends EclipsePlugin
             FileOutputStream out = new FileOutputStream( manifestFile );
             manifest.write( out );
             IOUtil.close( out );
+
+            return true;
         }
         catch( IOException e )
         {
             getLog().warn( "Unable to update Eclipse manifest: " + manifestFile );
-        }
 
-        createBuildProperties( baseDir, tempPath );
+            return false;
+        }
     }
 
     /**
@@ -594,12 +821,11 @@ public class EclipseOSGiMojo extends EclipsePlugin
         {
             try
             {
-                FileUtils.copyDirectoryStructure( metadataDir, new File( toDir, metadata ) );
-                FileUtils.deleteDirectory( metadataDir );
+                DirUtils.moveDirectory( metadataDir, new File( toDir, metadata ) );
             }
             catch( IOException e )
             {
-                getLog().warn( "Unable to copy " + metadata + " contents to base directory" );
+                getLog().warn( "Unable to move " + metadata + " contents to base directory" );
             }
         }
     }
@@ -668,26 +894,75 @@ public class EclipseOSGiMojo extends EclipsePlugin
      */
     private File findAttachedSource( String bundleLocation, String classPathEntry )
     {
-        for( Iterator i = m_embeddableDependencies.iterator(); i.hasNext(); )
+        if( m_embeddableDependencies.isEmpty() )
         {
-            IdeDependency dependency = (IdeDependency) i.next();
+            return null;
+        }
+
+        // equivalent to '.' - source is first in list
+        if( bundleLocation.equals( classPathEntry ) )
+        {
+            return ( (IdeDependency) m_embeddableDependencies.get( 0 ) ).getSourceAttachment();
+        }
+
+        // only consider the file name of embedded entries, ie. anything after the last path separator
+        int nameIndex = Math.max( classPathEntry.lastIndexOf( '/' ), classPathEntry.lastIndexOf( '\\' ) ) + 1;
+        if( nameIndex <= 0 )
+        {
+            return null;
+        }
+
+        Map sourceIndex = getSourceIndex();
+        int bestMatch = Integer.MAX_VALUE;
 
-            // equivalent to '.' - source is first in list
-            if( bundleLocation.equals( classPathEntry ) )
+        /*
+         * candidate artifactIds are prefixes of the file name that are followed by either '-' or '.' - when several
+         * dependencies match, pick the one that appeared first in the list to keep the previous behaviour
+         */
+        for( int i = nameIndex; i < classPathEntry.length(); i++ )
+        {
+            char c = classPathEntry.charAt( i );
+            if( ( '-' == c || '.' == c ) && i > nameIndex )
             {
-                return dependency.getSourceAttachment();
+                Integer position = (Integer) sourceIndex.get( classPathEntry.substring( nameIndex, i ) );
+                if( null != position && position.intValue() < bestMatch )
+                {
+                    bestMatch = position.intValue();
+                }
             }
-            else if( Pattern.matches( "^.*[/\\\\]" + dependency.getArtifactId() + "[-.][^/\\\\]*$", classPathEntry ) )
+        }
+
+        if( bestMatch < Integer.MAX_VALUE )
+        {
+            return ( (IdeDependency) m_embeddableDependencies.get( bestMatch ) ).getSourceAttachment();
+        }
+
+        return null;
+    }
+
+    /**
+     * @return index from artifactId to the position of the first matching embeddable dependency
+     */
+    private Map getSourceIndex()
+    {
+        if( null == m_sourceIndex )
+        {
+            m_sourceIndex = new HashMap();
+
+            int position = m_embeddableDependencies.size();
+            for( ListIterator i = m_embeddableDependencies.listIterator( position ); i.hasPrevious(); )
             {
-                return dependency.getSourceAttachment();
+                // iterate backwards so earlier dependencies take precedence
+                IdeDependency dependency = (IdeDependency) i.previous();
+                m_sourceIndex.put( dependency.getArtifactId(), new Integer( --position ) );
             }
         }
 
-        return null;
+        return m_sourceIndex;
     }
 
     /**
-     * Unpack each imported bundle in turn and generate the relevant Eclipse project files
+     * Unpack imported bundles that have changed (in parallel) and generate the relevant Eclipse project files
      * 
      * @throws InvalidDependencyVersionException
      * @throws MojoExecutionException
@@ -700,6 +975,8 @@ public class EclipseOSGiMojo extends EclipsePlugin
         m_provisionProject = getExecutedProject();
         setResolveDependencies( false );
 
+        List importedBundles = new ArrayList();
+
         Set artifacts = m_provisionProject.createArtifacts( artifactFactory, null, null );
         for( Iterator i = artifacts.iterator(); i.hasNext(); )
         {
@@ -709,42 +986,185 @@ public class EclipseOSGiMojo extends EclipsePlugin
             File groupDir = new File( m_provisionProject.getBasedir(), "target/" + artifact.getGroupId() );
             File baseDir = new File( groupDir, artifact.getArtifactId() + '-' + artifact.getVersion() );
 
-            // download and unpack the bundle
+            // download the bundle
             if( !PomUtils.downloadFile( artifact, artifactResolver, remoteArtifactRepositories, localRepository ) )
             {
                 getLog().warn( "Skipping missing bundle " + artifact );
                 continue;
             }
 
-            DirUtils.unpackBundle( artifact.getFile(), baseDir, null );
+            // changes to the artifact's POM also affect the generated project
+            Artifact pomArtifact = artifactFactory.createProjectArtifact( artifact.getGroupId(),
+                artifact.getArtifactId(), artifact.getVersion() );
+            File pomFile = new File( localRepository.getBasedir(), localRepository.pathOf( pomArtifact ) );
 
-            // download the bundle POM and store locally
-            MavenProject dependencyProject = writeProjectPom( baseDir, artifact );
-            if( null == dependencyProject )
+            ImportedBundle bundle = new ImportedBundle( artifact, pomFile, baseDir, downloadSources );
+            if( bundle.isUpToDate() )
             {
-                getLog().warn( "Skipping missing bundle " + artifact );
+                getLog().info( "Eclipse project for bundle " + artifact + " is up to date" );
+            }
+            else
+            {
+                importedBundles.add( bundle );
+            }
+        }
+
+        // unpacking is independent for each bundle, so can be done concurrently
+        ParallelUtils.runAll( importedBundles, eclipseThreads );
+
+        for( Iterator i = importedBundles.iterator(); i.hasNext(); )
+        {
+            ImportedBundle bundle = (ImportedBundle) i.next();
+            if( !bundle.isUnpacked() )
+            {
+                getLog().warn( "Unable to unpack bundle " + bundle.getArtifact() );
                 continue;
             }
 
-            dependencyProject.setArtifact( artifact );
+            // the Eclipse plugin is not thread-safe, so generate the project files one-by-one
+            generateImportedProject( bundle );
+        }
+    }
 
-            setExecutedProject( dependencyProject );
-            setProject( dependencyProject );
+    /**
+     * Generate Eclipse project files for an unpacked imported bundle
+     * 
+     * @param bundle imported bundle
+     * @throws MojoExecutionException
+     */
+    private void generateImportedProject( ImportedBundle bundle )
+        throws MojoExecutionException
+    {
+        Artifact artifact = bundle.getArtifact();
+        File baseDir = bundle.getBaseDir();
 
-            // trick Eclipse plugin to do the right thing
-            setBuildOutputDirectory( new File( baseDir, ".ignore" ) );
-            setEclipseProjectDir( baseDir );
+        // download the bundle POM and store locally
+        MavenProject dependencyProject = writeProjectPom( baseDir, artifact );
+        if( null == dependencyProject )
+        {
+            getLog().warn( "Skipping missing bundle " + artifact );
+            return;
+        }
 
-            try
-            {
-                // call the Eclipse plugin
-                getLog().info( "Generating Eclipse project for bundle " + artifact );
-                execute();
-            }
-            catch( MojoFailureException e )
-            {
-                getLog().warn( "Problem generating Eclipse files for artifact " + artifact );
-            }
+        dependencyProject.setArtifact( artifact );
+
+        setExecutedProject( dependencyProject );
+        setProject( dependencyProject );
+
+        // trick Eclipse plugin to do the right thing
+        setBuildOutputDirectory( new File( baseDir, ".ignore" ) );
+        setEclipseProjectDir( baseDir );
+
+        try
+        {
+            // call the Eclipse plugin
+            getLog().info( "Generating Eclipse project for bundle " + artifact );
+            execute();
+
+            bundle.markUpToDate();
+        }
+        catch( MojoFailureException e )
+        {
+            getLog().warn( "Problem generating Eclipse files for artifact " + artifact );
+        }
+    }
+
+    /**
+     * Per-bundle state used when generating Eclipse project files for imported bundles
+     */
+    private static class ImportedBundle
+        implements Runnable
+    {
+        /**
+         * Imported bundle artifact
+         */
+        private final Artifact m_artifact;
+
+        /**
+         * Where the bundle is unpacked
+         */
+        private final File m_baseDir;
+
+        /**
+         * Records the state of the bundle when the Eclipse project was last generated
+         */
+        private final File m_stampFile;
+
+        /**
+         * Current state of the bundle, includes any settings that affect the generated project
+         */
+        private final String m_fingerprint;
+
+        /**
+         * Set by the unpacking task
+         */
+        private volatile boolean m_unpacked;
+
+        /**
+         * @param artifact resolved bundle artifact
+         * @param pomFile the artifact's POM in the local repository
+         * @param baseDir where the bundle should be unpacked
+         * @param downloadSources true if sources should be attached
+         */
+        public ImportedBundle( Artifact artifact, File pomFile, File baseDir, boolean downloadSources )
+        {
+            m_artifact = artifact;
+            m_baseDir = baseDir;
+
+            m_stampFile = new File( baseDir.getParentFile(), baseDir.getName() + ".stamp" );
+            m_fingerprint = FingerprintUtils.fingerprint( artifact.getFile() ) + ";pom="
+                + FingerprintUtils.fingerprint( pomFile ) + ";sources=" + downloadSources;
+        }
+
+        /**
+         * @return imported bundle artifact
+         */
+        public Artifact getArtifact()
+        {
+            return m_artifact;
+        }
+
+        /**
+         * @return where the bundle is unpacked
+         */
+        public File getBaseDir()
+        {
+            return m_baseDir;
+        }
+
+        /**
+         * @return true if the bundle was unpacked, otherwise false
+         */
+        public boolean isUnpacked()
+        {
+            return m_unpacked;
+        }
+
+        /**
+         * @return true if the unpacked content, POM and Eclipse files match the current bundle, otherwise false
+         */
+        public boolean isUpToDate()
+        {
+            return new File( m_baseDir, "pom.xml" ).exists() && new File( m_baseDir, ".project" ).exists()
+                && new File( m_baseDir, ".classpath" ).exists()
+                && FingerprintUtils.isUpToDate( m_stampFile, m_fingerprint );
+        }
+
+        /**
+         * Record that the Eclipse project matches the current bundle
+         */
+        public void markUpToDate()
+        {
+            FingerprintUtils.saveStamp( m_stampFile, m_fingerprint );
+        }
+
+        /**
+         * Unpack the bundle, removing any stale stamp beforehand in case we're interrupted
+         */
+        public void run()
+        {
+            m_stampFile.delete();
+            m_unpacked = DirUtils.unpackBundle( m_artifact.getFile(), m_baseDir, null );
         }
     }
 
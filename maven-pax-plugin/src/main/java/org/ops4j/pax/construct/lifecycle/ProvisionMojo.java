@@ -46,12 +46,14 @@ import org.apache.maven.artifact.resolver.ArtifactResolver;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectBuilder;
 import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.settings.Mirror;
 import org.apache.maven.settings.Settings;
 import org.codehaus.plexus.util.IOUtil;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.StreamFactory;
 
@@ -75,6 +77,7 @@ import org.ops4j.pax.construct.util.StreamFactory;
  * @requiresDependencyResolution test
  */
 public class ProvisionMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * Maven groupId for the new Pax-Runner
@@ -273,8 +276,23 @@ public class ProvisionMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+
+        // launch after reporting, as the framework may run until the build is stopped
+        deployBundles();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
+        long startTime = BuildStats.start();
+
         m_bundleIds = new ArrayList();
 
         if( deployPoms != null )
@@ -292,7 +310,8 @@ public class ProvisionMojo extends AbstractMojo
 
         setupRuntimeHelpers();
 
-        deployBundles();
+        BuildStats.stop( "provision.collect", startTime );
+        BuildStats.count( "provision.bundles", m_bundleIds.size() );
     }
 
     /**
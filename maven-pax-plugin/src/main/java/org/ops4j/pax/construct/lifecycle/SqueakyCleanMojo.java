@@ -21,9 +21,13 @@ import java.io.IOException;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.model.fileset.FileSet;
 import org.apache.maven.shared.model.fileset.util.FileSetManager;
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.FileUtils;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.CacheUtils;
 import org.ops4j.pax.construct.util.PomUtils;
 
@@ -33,10 +37,12 @@ import org.ops4j.pax.construct.util.PomUtils;
  * 
  * @goal clean
  * @phase clean
+ * @threadSafe
  * 
  * @execute phase="clean"
  */
 public class SqueakyCleanMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * Project base directory.
@@ -56,10 +62,27 @@ public class SqueakyCleanMojo extends AbstractMojo
      */
     private MavenProject m_project;
 
+    /**
+     * When true, move generated directories aside and delete them in the background.
+     * 
+     * @parameter expression="${backgroundDelete}"
+     */
+    private boolean backgroundDelete;
+
     /**
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
         // only bundle projects need special cleaning
@@ -70,26 +93,20 @@ public class SqueakyCleanMojo extends AbstractMojo
 
         getLog().info( "[caching meta-data]" );
 
-        // cache files that we might have problems re-generating during the current lifecycle
-        CacheUtils.pushFile( this, "MANIFEST.MF", new File( m_basedir, "META-INF/MANIFEST.MF" ) );
-        CacheUtils.pushFile( this, ".project", new File( m_basedir, ".project" ) );
-        CacheUtils.pushFile( this, ".classpath", new File( m_basedir, ".classpath" ) );
-        getPluginContext().put( "basedir", m_basedir.getPath() );
-
-        FileSet generatedPaxFiles = new FileSet();
-        generatedPaxFiles.setDirectory( m_basedir.getPath() );
-        generatedPaxFiles.setUseDefaultExcludes( true );
-        generatedPaxFiles.setFollowSymlinks( true );
+        // snapshot files that we might have problems re-generating during the current lifecycle
+        File cacheDir = getMetaDataCache( m_project );
+        CacheUtils.pushFile( this, cacheDir, "MANIFEST.MF", new File( m_basedir, "META-INF/MANIFEST.MF" ) );
+        CacheUtils.pushFile( this, cacheDir, ".project", new File( m_basedir, ".project" ) );
+        CacheUtils.pushFile( this, cacheDir, ".classpath", new File( m_basedir, ".classpath" ) );
+        markCleaned( this, m_project );
 
         // remove Eclipse/PDE files (keep .settings)
-        generatedPaxFiles.addInclude( "META-INF/" );
-        generatedPaxFiles.addInclude( "OSGI-INF/" );
-        generatedPaxFiles.addInclude( ".project" );
-        generatedPaxFiles.addInclude( ".classpath" );
-
         try
         {
-            new FileSetManager( getLog(), false ).delete( generatedPaxFiles );
+            deleteDirectory( new File( m_basedir, "META-INF" ) );
+            deleteDirectory( new File( m_basedir, "OSGI-INF" ) );
+            deleteFile( new File( m_basedir, ".project" ) );
+            deleteFile( new File( m_basedir, ".classpath" ) );
         }
         catch( IOException e )
         {
@@ -97,20 +114,156 @@ public class SqueakyCleanMojo extends AbstractMojo
         }
     }
 
+    /**
+     * @param file generated file
+     * @throws IOException
+     */
+    private void deleteFile( File file )
+        throws IOException
+    {
+        if( file.isFile() )
+        {
+            FileUtils.forceDelete( file );
+        }
+    }
+
+    /**
+     * @param dir generated directory
+     * @throws IOException
+     */
+    private void deleteDirectory( File dir )
+        throws IOException
+    {
+        if( !dir.isDirectory() )
+        {
+            deleteFile( dir );
+            return;
+        }
+
+        if( hasDefaultExcludes( dir ) )
+        {
+            // keep any SCM metadata (.svn, CVS, etc.) along with its parent directories
+            deleteFileSet( dir );
+            return;
+        }
+
+        if( backgroundDelete )
+        {
+            // move it under the build directory, so anything left behind goes with the next clean
+            File trashDir = new File( m_project.getBuild().getDirectory(), "pax-trash" );
+            final File trash = new File( trashDir, dir.getName() + '-' + System.currentTimeMillis() );
+
+            trashDir.mkdirs();
+            if( dir.renameTo( trash ) )
+            {
+                Thread reaper = new Thread( "pax-clean-" + dir.getName() )
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            FileUtils.deleteDirectory( trash );
+                        }
+                        catch( IOException e )
+                        {
+                            // will be removed by the next clean
+                        }
+                    }
+                };
+
+                reaper.setDaemon( true );
+                reaper.start();
+
+                return;
+            }
+        }
+
+        FileUtils.deleteDirectory( dir );
+    }
+
+    /**
+     * @param dir generated directory
+     * @return true if the directory contains any default excludes, such as SCM metadata, otherwise false
+     */
+    private static boolean hasDefaultExcludes( File dir )
+    {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( dir );
+        scanner.addDefaultExcludes();
+        scanner.scan();
+
+        return !scanner.isEverythingIncluded();
+    }
+
+    /**
+     * Delete the contents of a generated directory, except for any default excludes
+     * 
+     * @param dir generated directory
+     * @throws IOException
+     */
+    private void deleteFileSet( File dir )
+        throws IOException
+    {
+        FileSet generatedFiles = new FileSet();
+        generatedFiles.setDirectory( dir.getParent() );
+        generatedFiles.setUseDefaultExcludes( true );
+        generatedFiles.setFollowSymlinks( true );
+        generatedFiles.addInclude( dir.getName() + '/' );
+
+        new FileSetManager( getLog(), false ).delete( generatedFiles );
+    }
+
+    /**
+     * @param project maven project
+     * @return directory holding the snapshot of the project's IDE files
+     */
+    static File getMetaDataCache( MavenProject project )
+    {
+        return new File( project.getBuild().getDirectory(), "pax-meta-data" );
+    }
+
+    /**
+     * @param project maven project
+     * @return plugin context key used to track cleaning of the given project
+     */
+    static String getCleanedKey( MavenProject project )
+    {
+        return "cleaned:" + project.getId() + '@' + project.getBasedir();
+    }
+
+    /**
+     * Remember that the project was cleaned during this session, so its metadata can be recovered
+     * 
+     * @param mojo currently executing mojo
+     * @param project maven project
+     */
+    static void markCleaned( AbstractMojo mojo, MavenProject project )
+    {
+        mojo.getPluginContext().put( getCleanedKey( project ), Boolean.TRUE );
+    }
+
     /**
      * Recover previously cached IDE files from the current Maven session
      * 
      * @param mojo currently executing mojo
+     * @param project maven project being built
      */
-    protected static void recoverMetaData( AbstractMojo mojo )
+    protected static void recoverMetaData( AbstractMojo mojo, MavenProject project )
     {
+        // nothing was cleaned for this project during this session
+        if( null == mojo.getPluginContext().get( getCleanedKey( project ) ) )
+        {
+            return;
+        }
+
         mojo.getLog().info( "[recovering meta-data]" );
 
-        String basedir = (String) mojo.getPluginContext().get( "basedir" );
+        File basedir = project.getBasedir();
+        File cacheDir = getMetaDataCache( project );
 
         // Restore generated files (previously removed during clean phase) before re-generation
-        CacheUtils.pullFile( mojo, "MANIFEST.MF", new File( basedir, "META-INF/MANIFEST.MF" ) );
-        CacheUtils.pullFile( mojo, ".project", new File( basedir, ".project" ) );
-        CacheUtils.pullFile( mojo, ".classpath", new File( basedir, ".classpath" ) );
+        CacheUtils.pullFile( mojo, cacheDir, "MANIFEST.MF", new File( basedir, "META-INF/MANIFEST.MF" ) );
+        CacheUtils.pullFile( mojo, cacheDir, ".project", new File( basedir, ".project" ) );
+        CacheUtils.pullFile( mojo, cacheDir, ".classpath", new File( basedir, ".classpath" ) );
     }
 }
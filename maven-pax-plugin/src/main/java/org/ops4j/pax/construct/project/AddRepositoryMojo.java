@@ -22,6 +22,8 @@ import java.io.IOException;
 import org.apache.maven.model.Repository;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
 
@@ -38,6 +40,7 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  * @requiresProject false
  */
 public class AddRepositoryMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * The repository identifier.
@@ -94,6 +97,16 @@ public class AddRepositoryMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
         Pom pom;
@@ -18,10 +18,13 @@ package org.ops4j.pax.construct.project;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
-import org.ops4j.pax.construct.util.DirUtils;
+import org.apache.maven.plugin.MojoFailureException;
+import org.ops4j.pax.construct.util.BuildStats;
+import org.ops4j.pax.construct.util.ModuleTreeBuilder;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
 
@@ -38,6 +41,7 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  * @requiresProject false
  */
 public class CreateModuleMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * The groupId for the new module.
@@ -47,7 +51,7 @@ public class CreateModuleMojo extends AbstractMojo
     private String groupId;
 
     /**
-     * The artifactId or the path for the new module.
+     * The artifactId or the path for the new module, use a comma-separated list to create several modules at once.
      * 
      * @parameter expression="${artifactId}"
      * @required
@@ -72,42 +76,85 @@ public class CreateModuleMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
+        ModuleTreeBuilder builder = new ModuleTreeBuilder( targetDirectory );
+
         try
         {
-            File modulePath = new File( targetDirectory, artifactId );
-            if( new File( modulePath, "pom.xml" ).exists() )
-            {
-                getLog().warn( "Module " + modulePath + " already exists" );
-                return;
-            }
-
-            Pom modulePom = DirUtils.createModuleTree( targetDirectory, modulePath );
-            if( null == modulePom )
+            String[] modulePaths = artifactId.split( "," );
+            for( int i = 0; i < modulePaths.length; i++ )
             {
-                throw new MojoExecutionException( "module path is outside of this project" );
+                modulePaths[i] = modulePaths[i].trim();
             }
 
-            // customized groupId?
-            if( PomUtils.isNotEmpty( groupId ) )
-            {
-                modulePom.setGroupId( groupId );
-            }
+            // create parents before their children, so explicit settings are applied to both
+            Arrays.sort( modulePaths );
 
-            // customized version?
-            if( PomUtils.isNotEmpty( version ) )
+            for( int i = 0; i < modulePaths.length; i++ )
             {
-                modulePom.setVersion( version );
+                if( modulePaths[i].length() > 0 )
+                {
+                    addModule( builder, new File( targetDirectory, modulePaths[i] ) );
+                }
             }
 
-            modulePom.write();
-
-            getLog().info( "Created new module " + modulePath );
+            // each new or updated POM is only written once
+            builder.write();
         }
         catch( IOException e )
         {
             throw new MojoExecutionException( "Unable to create module tree", e );
         }
     }
+
+    /**
+     * @param builder module tree builder
+     * @param modulePath location of the new module
+     * @throws IOException
+     * @throws MojoExecutionException
+     */
+    private void addModule( ModuleTreeBuilder builder, File modulePath )
+        throws IOException,
+        MojoExecutionException
+    {
+        // also covers intermediate modules created earlier in the same batch
+        if( builder.hasPom( modulePath ) )
+        {
+            getLog().warn( "Module " + modulePath + " already exists" );
+            return;
+        }
+
+        Pom modulePom = builder.addModuleTree( modulePath );
+        if( null == modulePom )
+        {
+            throw new MojoExecutionException( "module path is outside of this project" );
+        }
+
+        // customized groupId?
+        if( PomUtils.isNotEmpty( groupId ) )
+        {
+            modulePom.setGroupId( groupId );
+        }
+
+        // customized version?
+        if( PomUtils.isNotEmpty( version ) )
+        {
+            modulePom.setVersion( version );
+        }
+
+        builder.markChanged( modulePom );
+
+        getLog().info( "Created new module " + modulePath );
+    }
 }
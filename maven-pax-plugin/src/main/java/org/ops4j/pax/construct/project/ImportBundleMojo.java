@@ -33,11 +33,13 @@ import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DistributionManagement;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectBuilder;
 import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.project.artifact.InvalidDependencyVersionException;
-import org.ops4j.pax.construct.util.DirUtils;
+import org.ops4j.pax.construct.util.BuildStats;
+import org.ops4j.pax.construct.util.DependencyGraph;
 import org.ops4j.pax.construct.util.ExcludeSystemBundlesFilter;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
@@ -55,6 +57,7 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  * @requiresProject false
  */
 public class ImportBundleMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * Component factory for Maven artifacts
@@ -187,6 +190,11 @@ public class ImportBundleMojo extends AbstractMojo
      */
     private boolean overwrite;
 
+    /**
+     * Dependency graph of the local project tree, used to find local projects without searching the tree each time.
+     */
+    private DependencyGraph m_projectGraph;
+
     /**
      * The local provisioning POM, where imported non-local bundles are recorded.
      */
@@ -211,12 +219,25 @@ public class ImportBundleMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
+        m_projectGraph = new DependencyGraph();
+        m_projectGraph.addTree( targetDirectory );
+
         populateMissingFields();
 
         // Find host POMs which will receive the imported dependencies
-        m_provisionPom = DirUtils.findPom( targetDirectory, provisionId );
+        m_provisionPom = m_projectGraph.findPom( provisionId );
         m_localBundlePom = readBundlePom( targetDirectory );
 
         if( null == m_provisionPom && null == m_localBundlePom )
@@ -291,7 +312,7 @@ public class ImportBundleMojo extends AbstractMojo
     {
         if( PomUtils.isEmpty( groupId ) )
         {
-            Pom localPom = DirUtils.findPom( targetDirectory, artifactId );
+            Pom localPom = m_projectGraph.findPom( artifactId );
             if( localPom != null )
             {
                 // use the groupId from the POM
@@ -382,7 +403,7 @@ public class ImportBundleMojo extends AbstractMojo
         /*
          * look to see if this is a local project (if so then set the POM location)
          */
-        Pom localPom = DirUtils.findPom( targetDirectory, pomGroupId + ':' + pomArtifactId );
+        Pom localPom = m_projectGraph.findPom( pomGroupId + ':' + pomArtifactId );
         if( localPom != null )
         {
             project.setFile( localPom.getFile() );
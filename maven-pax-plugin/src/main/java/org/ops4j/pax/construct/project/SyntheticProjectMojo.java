@@ -0,0 +1,379 @@
+package org.ops4j.pax.construct.project;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Repository;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
+import org.ops4j.pax.construct.clone.PaxCommandBuilder;
+import org.ops4j.pax.construct.clone.PaxScript;
+import org.ops4j.pax.construct.clone.PaxScriptImpl;
+import org.ops4j.pax.construct.clone.ScriptPlayer;
+import org.ops4j.pax.construct.util.BuildStats;
+import org.ops4j.pax.construct.util.PomUtils;
+import org.ops4j.pax.construct.util.PomUtils.Pom;
+
+/**
+ * Fill an existing Pax-Construct project with a large synthetic tree of bundle modules, for scale testing.<br/>Run
+ * pax:create-project first, then use this goal to add nested module groups, bundles, wrapped and embedded synthetic
+ * third-party jars from a local file-based repository. The tree is built by the usual Pax-Construct commands, which
+ * are saved as a script under the project's target directory and replayed in the same way as pax:script.
+ * 
+ * <code><pre>
+ *   mvn pax:synthetic-project [-Ddepth=...] [-Dfanout=...] [-Dlibraries=...] [-DembedsPerBundle=...]
+ * </pre></code>
+ * 
+ * @goal synthetic-project
+ * @aggregator true
+ * 
+ * @requiresProject false
+ */
+public class SyntheticProjectMojo extends AbstractMojo
+{
+    /**
+     * Script placeholder for the project directory, replaced when the script is replayed
+     */
+    private static final String SCRIPT_DIR = "${_SCRIPTDIR_}";
+
+    /**
+     * The current Maven session.
+     * 
+     * @parameter expression="${session}"
+     * @required
+     * @readonly
+     */
+    private MavenSession m_session;
+
+    /**
+     * The current Maven project (will be Maven super-POM if no existing project)
+     * 
+     * @parameter expression="${project}"
+     * @required
+     * @readonly
+     */
+    private MavenProject m_project;
+
+    /**
+     * Descriptor for this plugin, used to find the other Pax-Construct mojos.
+     * 
+     * @parameter expression="${plugin}"
+     * @required
+     * @readonly
+     */
+    private PluginDescriptor m_pluginDescriptor;
+
+    /**
+     * Number of nested module levels above each bundle.
+     * 
+     * @parameter expression="${depth}" default-value="2"
+     */
+    private int depth;
+
+    /**
+     * Number of child modules in each module group.
+     * 
+     * @parameter expression="${fanout}" default-value="10"
+     */
+    private int fanout;
+
+    /**
+     * Number of synthetic third-party jars to put in the local repository, each one is also wrapped as a bundle.
+     * 
+     * @parameter expression="${libraries}" default-value="20"
+     */
+    private int libraries;
+
+    /**
+     * Number of synthetic third-party jars embedded in each generated bundle.
+     * 
+     * @parameter expression="${embedsPerBundle}" default-value="1"
+     */
+    private int embedsPerBundle;
+
+    /**
+     * Size in bytes of the resource inside each synthetic third-party jar.
+     * 
+     * @parameter expression="${librarySize}" default-value="4096"
+     */
+    private int librarySize;
+
+    /**
+     * The directory containing the Pax-Construct project to fill.
+     * 
+     * @parameter expression="${targetDirectory}" default-value="${project.basedir}"
+     */
+    private File targetDirectory;
+
+    /**
+     * Location of the local file-based repository holding the synthetic third-party jars, defaults to a
+     * 'synthetic-repository' directory inside the project.
+     * 
+     * @parameter expression="${repositoryDirectory}"
+     */
+    private File repositoryDirectory;
+
+    /**
+     * Group id shared by the synthetic third-party jars
+     */
+    private String m_libraryGroupId;
+
+    /**
+     * Java namespace used for the generated bundles
+     */
+    private String m_namespace;
+
+    /**
+     * Number of bundles generated so far
+     */
+    private int m_bundleCount;
+
+    /**
+     * {@inheritDoc}
+     */
+    public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.begin( this );
+        try
+        {
+            Pom rootPom = PomUtils.readPom( targetDirectory );
+
+            File compiledDir = new File( targetDirectory, "poms/compiled" );
+            if( !new File( compiledDir, "pom.xml" ).exists() )
+            {
+                throw new MojoExecutionException( "Cannot find " + compiledDir + ", run pax:create-project first" );
+            }
+
+            m_libraryGroupId = rootPom.getGroupId() + ".synthetic";
+            m_namespace = PomUtils.getCompoundId( rootPom.getGroupId(), rootPom.getArtifactId() );
+
+            if( null == repositoryDirectory )
+            {
+                repositoryDirectory = new File( targetDirectory, "synthetic-repository" );
+            }
+
+            PaxScript script = new PaxScriptImpl();
+
+            createRepository( rootPom, script );
+
+            List groupPaths = new ArrayList();
+            addModuleGroup( script, groupPaths, "", 1, "" );
+            if( !groupPaths.isEmpty() )
+            {
+                // one batch, so each intermediate module POM is only written once
+                PaxCommandBuilder command = script.call( PaxScript.CREATE_MODULE );
+                command.option( 'a', StringUtils.join( groupPaths.iterator(), "," ) );
+                setTargetDirectory( command, "" );
+            }
+
+            // keep the generated script out of the project sources
+            File scriptFile = new File( targetDirectory, "target/create-synthetic.sh" );
+            scriptFile.getParentFile().mkdirs();
+            script.write( "synthetic", scriptFile, Collections.EMPTY_LIST );
+
+            ScriptPlayer player = new ScriptPlayer( this, m_session, m_project, m_pluginDescriptor );
+            player.play( scriptFile, targetDirectory );
+
+            getLog().info( "Created " + m_bundleCount + " synthetic bundles in " + targetDirectory );
+        }
+        catch( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to create synthetic project", e );
+        }
+        finally
+        {
+            BuildStats.report( this );
+        }
+    }
+
+    /**
+     * Populate the local repository with synthetic third-party jars, and wrap each one as a bundle
+     * 
+     * @param rootPom project POM
+     * @param script Pax-Construct script
+     * @throws IOException
+     */
+    private void createRepository( Pom rootPom, PaxScript script )
+        throws IOException
+    {
+        if( libraries <= 0 )
+        {
+            return;
+        }
+
+        Repository repository = new Repository();
+        repository.setId( "synthetic" );
+        repository.setUrl( repositoryDirectory.toURI().toString() );
+        rootPom.addRepository( repository, false, true, true, false );
+
+        // save now, the replayed commands also update this POM
+        rootPom.write();
+
+        for( int i = 0; i < libraries; i++ )
+        {
+            String artifactId = "library-" + i;
+            File versionDir = new File( repositoryDirectory, m_libraryGroupId.replace( '.', '/' ) + '/' + artifactId
+                + "/1.0" );
+
+            Pom libraryPom = PomUtils.createModulePom( new File( versionDir, artifactId + "-1.0.pom" ),
+                m_libraryGroupId, artifactId );
+            libraryPom.setVersion( "1.0" );
+            libraryPom.setPackaging( "jar" );
+            libraryPom.write();
+
+            createLibraryJar( new File( versionDir, artifactId + "-1.0.jar" ), m_libraryGroupId + ".library" + i );
+
+            PaxCommandBuilder command = script.call( PaxScript.WRAP_JAR );
+            command.option( 'g', m_libraryGroupId );
+            command.option( 'a', artifactId );
+            command.option( 'v', "1.0" );
+            setTargetDirectory( command, "" );
+        }
+    }
+
+    /**
+     * @param jarFile location of the synthetic jar
+     * @param namespace exported package
+     * @throws IOException
+     */
+    private void createLibraryJar( File jarFile, String namespace )
+        throws IOException
+    {
+        Manifest manifest = new Manifest();
+
+        Attributes mainAttributes = manifest.getMainAttributes();
+        mainAttributes.putValue( "Manifest-Version", "1.0" );
+
+        byte[] content = new byte[Math.max( librarySize, 0 )];
+        for( int i = 0; i < content.length; i++ )
+        {
+            content[i] = (byte) ( 'a' + i % 26 );
+        }
+
+        JarOutputStream jar = new JarOutputStream( new FileOutputStream( jarFile ), manifest );
+        try
+        {
+            jar.putNextEntry( new JarEntry( namespace.replace( '.', '/' ) + "/resource.txt" ) );
+            jar.write( content );
+            jar.closeEntry();
+        }
+        finally
+        {
+            IOUtil.close( jar );
+        }
+    }
+
+    /**
+     * Add a level of nested modules below the given path
+     * 
+     * @param script Pax-Construct script
+     * @param groupPaths collects the paths of module groups that hold bundles
+     * @param path relative path of the module group, empty for the project itself
+     * @param level nesting level of the new modules
+     * @param suffix unique suffix for this module group
+     */
+    private void addModuleGroup( PaxScript script, List groupPaths, String path, int level, String suffix )
+    {
+        for( int i = 0; i < fanout; i++ )
+        {
+            String childSuffix = suffix + '-' + i;
+            if( level <= depth )
+            {
+                String childPath = "group" + childSuffix;
+                if( path.length() > 0 )
+                {
+                    childPath = path + '/' + childPath;
+                }
+
+                addModuleGroup( script, groupPaths, childPath, level + 1, childSuffix );
+            }
+            else
+            {
+                if( 0 == i && path.length() > 0 )
+                {
+                    groupPaths.add( path );
+                }
+
+                addBundle( script, path, childSuffix, i > 0 ? "bundle" + suffix + '-' + ( i - 1 ) : null );
+            }
+        }
+    }
+
+    /**
+     * Add a bundle module to the given module group
+     * 
+     * @param script Pax-Construct script
+     * @param path relative path of the module group, empty for the project itself
+     * @param suffix unique suffix for this bundle
+     * @param siblingId name of a sibling bundle to depend on, may be null
+     */
+    private void addBundle( PaxScript script, String path, String suffix, String siblingId )
+    {
+        String bundleName = "bundle" + suffix;
+        String bundlePath = path.length() > 0 ? path + '/' + bundleName : bundleName;
+
+        PaxCommandBuilder command = script.call( PaxScript.CREATE_BUNDLE );
+        command.option( 'p', m_namespace + '.' + bundleName.replace( '-', '_' ) );
+        command.option( 'n', bundleName );
+        setTargetDirectory( command, path );
+
+        if( null != siblingId )
+        {
+            command = script.call( PaxScript.IMPORT_BUNDLE );
+            command.option( 'a', siblingId );
+            setTargetDirectory( command, bundlePath );
+        }
+
+        for( int i = 0; libraries > 0 && i < embedsPerBundle; i++ )
+        {
+            command = script.call( PaxScript.EMBED_JAR );
+            command.option( 'g', m_libraryGroupId );
+            command.option( 'a', "library-" + ( m_bundleCount * embedsPerBundle + i ) % libraries );
+            command.option( 'v', "1.0" );
+            setTargetDirectory( command, bundlePath );
+        }
+
+        m_bundleCount++;
+    }
+
+    /**
+     * @param command Pax-Construct command
+     * @param path relative path inside the project, empty for the project itself
+     */
+    private static void setTargetDirectory( PaxCommandBuilder command, String path )
+    {
+        command.maven().option( "targetDirectory", path.length() > 0 ? SCRIPT_DIR + '/' + path : SCRIPT_DIR );
+    }
+}
@@ -31,9 +31,11 @@ import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.resolver.ArtifactResolver;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import org.ops4j.pax.construct.archetype.AbstractPaxArchetypeMojo;
+import org.ops4j.pax.construct.util.BuildStats;
 import org.ops4j.pax.construct.util.PomUtils;
 import org.ops4j.pax.construct.util.PomUtils.Pom;
 
@@ -50,6 +52,7 @@ import org.ops4j.pax.construct.util.PomUtils.Pom;
  * @requiresProject false
  */
 public class UpdateMojo extends AbstractMojo
+    implements BuildStats.Goal
 {
     /**
      * Component factory for Maven artifacts
@@ -108,6 +111,16 @@ public class UpdateMojo extends AbstractMojo
      * {@inheritDoc}
      */
     public void execute()
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        BuildStats.execute( this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void executeGoal()
         throws MojoExecutionException
     {
         String groupId = AbstractPaxArchetypeMojo.PAX_CONSTRUCT_GROUP_ID;
@@ -0,0 +1,245 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Various utility methods for replacing files without exposing partially written content
+ */
+public final class AtomicFileUtils
+{
+    /**
+     * File.canExecute (Java 6 and above), null if not available
+     */
+    private static final Method CAN_EXECUTE = findFileMethod( "canExecute", new Class[0] );
+
+    /**
+     * File.setExecutable (Java 6 and above), null if not available
+     */
+    private static final Method SET_EXECUTABLE = findFileMethod( "setExecutable", new Class[]
+    {
+        Boolean.TYPE
+    } );
+
+    /**
+     * Hide constructor for utility class
+     */
+    private AtomicFileUtils()
+    {
+        /*
+         * nothing to do
+         */
+    }
+
+    /**
+     * Replace the file with the given content, by writing a temporary file alongside it and renaming that into place
+     * 
+     * @param file file to replace, symbolic links are followed so the link itself is kept
+     * @param content new file content
+     * @return true if the file was written, false if it already had the same content
+     * @throws IOException
+     */
+    public static boolean write( File file, byte[] content )
+        throws IOException
+    {
+        File target = file.getCanonicalFile();
+        if( hasContent( target, content ) )
+        {
+            BuildStats.count( "files.unchanged", 1 );
+            return false;
+        }
+
+        File dir = target.getParentFile();
+        dir.mkdirs();
+
+        // same directory, so the rename doesn't need to copy across file-systems
+        File tempFile = File.createTempFile( '.' + target.getName() + '-', ".tmp", dir );
+
+        boolean written = false;
+
+        OutputStream out = new FileOutputStream( tempFile );
+        try
+        {
+            out.write( content );
+            written = true;
+        }
+        finally
+        {
+            IOUtil.close( out );
+            if( !written )
+            {
+                tempFile.delete();
+            }
+        }
+
+        if( target.exists() )
+        {
+            copyPermissions( target, tempFile );
+        }
+
+        if( !tempFile.renameTo( target ) )
+        {
+            // some platforms won't rename over an existing file
+            replace( target, tempFile );
+        }
+
+        return true;
+    }
+
+    /**
+     * Replace an existing file that cannot be renamed over, keeping the original until the new file is in place
+     * 
+     * @param target file to replace
+     * @param tempFile new content
+     * @throws IOException
+     */
+    private static void replace( File target, File tempFile )
+        throws IOException
+    {
+        File backupFile = File.createTempFile( '.' + target.getName() + '-', ".bak", target.getParentFile() );
+        backupFile.delete();
+
+        if( !target.renameTo( backupFile ) )
+        {
+            tempFile.delete();
+            throw new IOException( "Unable to replace " + target );
+        }
+
+        if( !tempFile.renameTo( target ) )
+        {
+            // put the original back
+            backupFile.renameTo( target );
+            tempFile.delete();
+            throw new IOException( "Unable to replace " + target );
+        }
+
+        backupFile.delete();
+    }
+
+    /**
+     * Copy permissions from the original file to its replacement, where the platform supports it
+     * 
+     * @param from original file
+     * @param to replacement file
+     */
+    private static void copyPermissions( File from, File to )
+    {
+        if( !from.canWrite() )
+        {
+            to.setReadOnly();
+        }
+
+        if( null != CAN_EXECUTE && null != SET_EXECUTABLE )
+        {
+            try
+            {
+                if( Boolean.TRUE.equals( CAN_EXECUTE.invoke( from, null ) ) )
+                {
+                    SET_EXECUTABLE.invoke( to, new Object[]
+                    {
+                        Boolean.TRUE
+                    } );
+                }
+            }
+            catch( Exception e )
+            {
+                // best effort, the new content is still valid
+            }
+        }
+    }
+
+    /**
+     * @param name method name
+     * @param types parameter types
+     * @return the public File method, null if not available
+     */
+    private static Method findFileMethod( String name, Class[] types )
+    {
+        try
+        {
+            return File.class.getMethod( name, types );
+        }
+        catch( NoSuchMethodException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @param from source file
+     * @param to file to replace
+     * @return true if the file was written, false if it already had the same content
+     * @throws IOException
+     */
+    public static boolean copy( File from, File to )
+        throws IOException
+    {
+        return write( to, readBytes( from ) );
+    }
+
+    /**
+     * @param file existing file, may not exist
+     * @param content expected content
+     * @return true if the file exists and has exactly the expected content, otherwise false
+     */
+    private static boolean hasContent( File file, byte[] content )
+    {
+        // cheap check first, avoids reading files that obviously differ
+        if( !file.isFile() || file.length() != content.length )
+        {
+            return false;
+        }
+
+        try
+        {
+            return Arrays.equals( readBytes( file ), content );
+        }
+        catch( IOException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @param file file to read
+     * @return file content
+     * @throws IOException
+     */
+    private static byte[] readBytes( File file )
+        throws IOException
+    {
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            return IOUtil.toByteArray( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed form of an OSGi header-style Bnd instruction (Embed-Dependency, Import-Package, -exportcontents, etc.) with
+ * clauses indexed by their leading path, so several edits can be applied before formatting the instruction again
+ */
+public class BndHeader
+{
+    /**
+     * Clauses in instruction order
+     */
+    private final List m_clauses;
+
+    /**
+     * Maps each leading path to the list of clauses that start with it
+     */
+    private final Map m_index;
+
+    /**
+     * @param instruction comma separated list of clauses, may be null
+     */
+    public BndHeader( String instruction )
+    {
+        m_clauses = new ArrayList();
+        m_index = new HashMap();
+
+        if( null != instruction )
+        {
+            for( Iterator i = split( instruction, ',' ).iterator(); i.hasNext(); )
+            {
+                addClause( (String) i.next() );
+            }
+        }
+    }
+
+    /**
+     * @param clause new clause, appended after the existing clauses (empty clauses are ignored)
+     */
+    public void addClause( String clause )
+    {
+        if( clause.trim().length() == 0 )
+        {
+            return;
+        }
+
+        Clause c = new Clause( clause );
+        m_clauses.add( c );
+
+        List clauses = (List) m_index.get( c.getPath() );
+        if( null == clauses )
+        {
+            clauses = new ArrayList( 1 );
+            m_index.put( c.getPath(), clauses );
+        }
+        clauses.add( c );
+    }
+
+    /**
+     * @param path leading path
+     * @return clauses starting with the given path, in instruction order
+     */
+    public List getClauses( String path )
+    {
+        List clauses = (List) m_index.get( path );
+        if( null == clauses )
+        {
+            return Collections.EMPTY_LIST;
+        }
+
+        return Collections.unmodifiableList( clauses );
+    }
+
+    /**
+     * @param path leading path
+     * @param name attribute name, null to match any clause with the given path
+     * @param value attribute value
+     * @return number of clauses removed
+     */
+    public int removeClauses( String path, String name, String value )
+    {
+        List clauses = (List) m_index.get( path );
+        if( null == clauses )
+        {
+            return 0;
+        }
+
+        int count = 0;
+        for( Iterator i = clauses.iterator(); i.hasNext(); )
+        {
+            Clause c = (Clause) i.next();
+            if( null == name || String.valueOf( value ).equals( c.getAttribute( name ) ) )
+            {
+                // cleared from the main list when formatting
+                c.m_removed = true;
+                i.remove();
+                count++;
+            }
+        }
+
+        if( clauses.isEmpty() )
+        {
+            m_index.remove( path );
+        }
+
+        return count;
+    }
+
+    /**
+     * @return true if there are no clauses, otherwise false
+     */
+    public boolean isEmpty()
+    {
+        return m_index.isEmpty();
+    }
+
+    /**
+     * @return comma separated list of clauses
+     */
+    public String toString()
+    {
+        StringBuffer buf = new StringBuffer();
+
+        for( Iterator i = m_clauses.iterator(); i.hasNext(); )
+        {
+            Clause c = (Clause) i.next();
+            if( c.m_removed )
+            {
+                i.remove();
+            }
+            else
+            {
+                if( buf.length() > 0 )
+                {
+                    buf.append( ',' );
+                }
+                buf.append( c );
+            }
+        }
+
+        return buf.toString();
+    }
+
+    /**
+     * Split text on the given separator, ignoring separators inside quotes
+     * 
+     * @param text text to split
+     * @param separator separator character
+     * @return list of trimmed segments
+     */
+    static List split( String text, char separator )
+    {
+        List segments = new ArrayList();
+
+        char quote = 0;
+        int start = 0;
+
+        for( int i = 0; i < text.length(); i++ )
+        {
+            char c = text.charAt( i );
+            if( 0 != quote )
+            {
+                if( quote == c )
+                {
+                    quote = 0;
+                }
+            }
+            else if( '\'' == c || '\"' == c )
+            {
+                quote = c;
+            }
+            else if( separator == c )
+            {
+                segments.add( text.substring( start, i ).trim() );
+                start = i + 1;
+            }
+        }
+
+        segments.add( text.substring( start ).trim() );
+
+        return segments;
+    }
+
+    /**
+     * A single clause: leading path followed by optional attributes and directives
+     */
+    public static final class Clause
+    {
+        /**
+         * Clause text, as it will be formatted
+         */
+        private final String m_text;
+
+        /**
+         * Leading path
+         */
+        private final String m_path;
+
+        /**
+         * Attribute values (unquoted) keyed by name, directive names keep their trailing ':'
+         */
+        private final Map m_attributes;
+
+        /**
+         * Clause has been removed from the header
+         */
+        boolean m_removed;
+
+        /**
+         * @param text clause text
+         */
+        Clause( String text )
+        {
+            m_text = text.trim();
+            m_attributes = new LinkedHashMap();
+
+            List parts = split( m_text, ';' );
+            m_path = (String) parts.get( 0 );
+
+            for( int i = 1; i < parts.size(); i++ )
+            {
+                String part = (String) parts.get( i );
+                int eq = part.indexOf( '=' );
+                if( eq > 0 )
+                {
+                    m_attributes.put( part.substring( 0, eq ).trim(), unquote( part.substring( eq + 1 ).trim() ) );
+                }
+            }
+        }
+
+        /**
+         * @return leading path
+         */
+        public String getPath()
+        {
+            return m_path;
+        }
+
+        /**
+         * @param name attribute name, directive names must include the trailing ':'
+         * @return unquoted attribute value, null if not set
+         */
+        public String getAttribute( String name )
+        {
+            return (String) m_attributes.get( name );
+        }
+
+        /**
+         * @return clause text
+         */
+        public String toString()
+        {
+            return m_text;
+        }
+
+        /**
+         * @param value attribute value
+         * @return value without surrounding quotes
+         */
+        private static String unquote( String value )
+        {
+            int last = value.length() - 1;
+            if( last > 0 && value.charAt( last ) == value.charAt( 0 ) )
+            {
+                char quote = value.charAt( 0 );
+                if( '\'' == quote || '\"' == quote )
+                {
+                    return value.substring( 1, last );
+                }
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Persisted fingerprint of the inputs and outputs of a build step, used to skip the step when none of the inputs have
+ * changed and its outputs are still in place
+ */
+public class BuildState
+{
+    /**
+     * Where the fingerprint is saved between builds
+     */
+    private final File m_stateFile;
+
+    /**
+     * Accumulated fingerprint of the inputs
+     */
+    private final StringBuffer m_inputs;
+
+    /**
+     * Output directories, fingerprinted when the state is saved and again when it is checked
+     */
+    private final List m_outputDirs;
+
+    /**
+     * File extension of the output files, null to include all files
+     */
+    private final String m_outputExtension;
+
+    /**
+     * @param stateFile where the fingerprint is saved between builds
+     * @param outputExtension file extension of the output files (such as ".class"), null to include all files
+     */
+    public BuildState( File stateFile, String outputExtension )
+    {
+        m_stateFile = stateFile;
+        m_inputs = new StringBuffer();
+        m_outputDirs = new ArrayList();
+        m_outputExtension = outputExtension;
+    }
+
+    /**
+     * @param setting build setting that affects the output
+     */
+    public void addSetting( String setting )
+    {
+        m_inputs.append( setting ).append( '\n' );
+    }
+
+    /**
+     * Add a file or directory, directories are added recursively (in a consistent order)
+     * 
+     * @param file file or directory
+     */
+    public void addFile( File file )
+    {
+        appendFiles( m_inputs, file, null );
+    }
+
+    /**
+     * Add an output directory, files with the output extension are compared by size and timestamp
+     * 
+     * @param dir output directory
+     */
+    public void addOutput( File dir )
+    {
+        m_outputDirs.add( dir );
+    }
+
+    /**
+     * @param buf fingerprint buffer
+     * @param file file or directory, directories are added recursively (in a consistent order)
+     * @param extension only add files with this extension, null to add all files
+     */
+    private static void appendFiles( StringBuffer buf, File file, String extension )
+    {
+        List candidates = new ArrayList();
+        candidates.add( file );
+
+        while( !candidates.isEmpty() )
+        {
+            File f = (File) candidates.remove( candidates.size() - 1 );
+            if( f.isDirectory() )
+            {
+                File[] files = f.listFiles();
+                if( null != files )
+                {
+                    // reverse order, so we process the files in alphabetical order
+                    Arrays.sort( files );
+                    for( int i = files.length - 1; i >= 0; i-- )
+                    {
+                        candidates.add( files[i] );
+                    }
+                }
+            }
+            else if( null == extension || f.getName().endsWith( extension ) )
+            {
+                buf.append( f.getPath() ).append( '=' ).append( FingerprintUtils.fingerprint( f ) ).append( '\n' );
+            }
+        }
+    }
+
+    /**
+     * @param paths list of file or directory paths
+     */
+    public void addPaths( List paths )
+    {
+        for( Iterator i = paths.iterator(); i.hasNext(); )
+        {
+            addFile( new File( (String) i.next() ) );
+        }
+    }
+
+    /**
+     * @return true if the inputs and outputs match the previously saved build state, otherwise false
+     */
+    public boolean isUpToDate()
+    {
+        return FingerprintUtils.isUpToDate( m_stateFile, getState() );
+    }
+
+    /**
+     * Save the current inputs and outputs, should only be called after the build step succeeds
+     */
+    public void save()
+    {
+        FingerprintUtils.saveStamp( m_stateFile, getState() );
+    }
+
+    /**
+     * Remove any previously saved build state, should be called before starting the build step
+     */
+    public void invalidate()
+    {
+        m_stateFile.delete();
+    }
+
+    /**
+     * @return compact digest of the inputs, followed by a digest of the current outputs
+     */
+    private String getState()
+    {
+        StringBuffer outputs = new StringBuffer();
+        for( Iterator i = m_outputDirs.iterator(); i.hasNext(); )
+        {
+            appendFiles( outputs, (File) i.next(), m_outputExtension );
+        }
+
+        return getDigest( m_inputs.toString() ) + ':' + getDigest( outputs.toString() );
+    }
+
+    /**
+     * @param fingerprint accumulated fingerprint
+     * @return compact digest of the fingerprint
+     */
+    private static String getDigest( String fingerprint )
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance( "MD5" ).digest( fingerprint.getBytes( "UTF-8" ) );
+            return FingerprintUtils.toHex( digest );
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            return fingerprint;
+        }
+        catch( UnsupportedEncodingException e )
+        {
+            return fingerprint;
+        }
+    }
+}
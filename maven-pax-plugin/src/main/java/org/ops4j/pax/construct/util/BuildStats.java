@@ -0,0 +1,424 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Lightweight timing and I/O counters for pax goals, enabled with -Dpax.stats (summary table) and/or
+ * -Dpax.stats.json=file (appends one JSON record per goal). Each goal runs inside {@link #execute(Goal)}, or calls
+ * {@link #begin(Mojo)} when it starts and {@link #report(Mojo)} when it ends, so statistics are never charged to a
+ * different goal.
+ */
+public final class BuildStats
+{
+    /**
+     * Returned from {@link #start()} when statistics are disabled
+     */
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    /**
+     * High resolution timer (Java 5 and above), null if not available
+     */
+    private static final Method NANO_TIME = findNanoTime();
+
+    /**
+     * Stack of statistics for the running goals, inherited by worker threads so their work is charged to the goal
+     * that started them (each builder thread in a parallel build gets its own stack)
+     */
+    private static final ThreadLocal GOALS = new InheritableThreadLocal()
+    {
+        /**
+         * {@inheritDoc}
+         */
+        protected Object initialValue()
+        {
+            return new LinkedList();
+        }
+    };
+
+    /**
+     * Hide constructor for utility class
+     */
+    private BuildStats()
+    {
+        /*
+         * nothing to do
+         */
+    }
+
+    /**
+     * Goal whose statistics are collected by {@link BuildStats#execute(Goal)}
+     */
+    public interface Goal
+        extends Mojo
+    {
+        /**
+         * Perform the actual work of the goal
+         * 
+         * @throws MojoExecutionException
+         * @throws MojoFailureException
+         */
+        void executeGoal()
+            throws MojoExecutionException,
+            MojoFailureException;
+    }
+
+    /**
+     * Statistics recorded for a single goal
+     */
+    private static final class GoalStats
+    {
+        /**
+         * Goal being measured
+         */
+        final Mojo m_mojo;
+
+        /**
+         * True if a summary table should be printed when the goal ends
+         */
+        final boolean m_summary;
+
+        /**
+         * File collecting JSON records, null if records should not be exported
+         */
+        final String m_jsonPath;
+
+        /**
+         * Accumulated timings, maps phase name to { calls, nanoseconds }
+         */
+        final Map m_timers = new TreeMap();
+
+        /**
+         * Accumulated counters, maps counter name to { calls, total }
+         */
+        final Map m_counters = new TreeMap();
+
+        /**
+         * @param mojo goal being measured
+         * @param summary true if a summary table should be printed
+         * @param jsonPath file collecting JSON records, may be null
+         */
+        GoalStats( Mojo mojo, boolean summary, String jsonPath )
+        {
+            m_mojo = mojo;
+            m_summary = summary;
+            m_jsonPath = jsonPath;
+        }
+    }
+
+    /**
+     * @return the System.nanoTime method, null if not available
+     */
+    private static Method findNanoTime()
+    {
+        try
+        {
+            return System.class.getMethod( "nanoTime", null );
+        }
+        catch( NoSuchMethodException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return current time in nanoseconds, only useful for measuring elapsed time
+     */
+    private static long now()
+    {
+        if( null != NANO_TIME )
+        {
+            try
+            {
+                return ( (Long) NANO_TIME.invoke( null, null ) ).longValue();
+            }
+            catch( Exception e )
+            {
+                // fall back to the millisecond clock
+            }
+        }
+
+        return System.currentTimeMillis() * 1000000L;
+    }
+
+    /**
+     * Run a goal, collecting statistics from when it starts until it ends
+     * 
+     * @param goal goal to run
+     * @throws MojoExecutionException
+     * @throws MojoFailureException
+     */
+    public static void execute( Goal goal )
+        throws MojoExecutionException,
+        MojoFailureException
+    {
+        begin( goal );
+        try
+        {
+            goal.executeGoal();
+        }
+        finally
+        {
+            report( goal );
+        }
+    }
+
+    /**
+     * @return true if statistics are being recorded for the current goal, otherwise false
+     */
+    public static boolean isEnabled()
+    {
+        LinkedList goals = (LinkedList) GOALS.get();
+        synchronized( goals )
+        {
+            return !goals.isEmpty();
+        }
+    }
+
+    /**
+     * Start collecting statistics for a goal, nested goals (such as those replayed by pax:script) are kept separate
+     * 
+     * @param mojo currently executing mojo
+     */
+    public static void begin( Mojo mojo )
+    {
+        // settings are read once per goal, not for every statistic
+        boolean summary = Boolean.getBoolean( "pax.stats" );
+        String jsonPath = System.getProperty( "pax.stats.json" );
+
+        if( summary || null != jsonPath )
+        {
+            LinkedList goals = (LinkedList) GOALS.get();
+            synchronized( goals )
+            {
+                goals.addLast( new GoalStats( mojo, summary, jsonPath ) );
+            }
+        }
+    }
+
+    /**
+     * @return start time, to be passed to {@link #stop(String, long)}
+     */
+    public static long start()
+    {
+        return isEnabled() ? now() : DISABLED;
+    }
+
+    /**
+     * @param phase name of the timed phase
+     * @param startTime value returned from {@link #start()}
+     */
+    public static void stop( String phase, long startTime )
+    {
+        if( DISABLED != startTime )
+        {
+            add( true, phase, now() - startTime );
+        }
+    }
+
+    /**
+     * @param counter name of the counter
+     * @param amount amount to add
+     */
+    public static void count( String counter, long amount )
+    {
+        add( false, counter, amount );
+    }
+
+    /**
+     * @param timer true to add to a timer, false to add to a counter
+     * @param name statistic name
+     * @param amount amount to add
+     */
+    private static void add( boolean timer, String name, long amount )
+    {
+        LinkedList goals = (LinkedList) GOALS.get();
+        synchronized( goals )
+        {
+            // statistics are only kept while a goal is being measured
+            if( goals.isEmpty() )
+            {
+                return;
+            }
+
+            GoalStats stats = (GoalStats) goals.getLast();
+            Map values = timer ? stats.m_timers : stats.m_counters;
+
+            long[] total = (long[]) values.get( name );
+            if( null == total )
+            {
+                total = new long[2];
+                values.put( name, total );
+            }
+
+            total[0]++;
+            total[1] += amount;
+        }
+    }
+
+    /**
+     * Print a summary of the statistics recorded during the goal and export them if requested
+     * 
+     * @param mojo currently executing mojo
+     */
+    public static void report( Mojo mojo )
+    {
+        GoalStats stats = null;
+
+        LinkedList goals = (LinkedList) GOALS.get();
+        synchronized( goals )
+        {
+            // also drop anything left behind by nested goals that failed before reporting
+            while( !goals.isEmpty() && null == stats )
+            {
+                GoalStats candidate = (GoalStats) goals.removeLast();
+                if( candidate.m_mojo == mojo || goals.isEmpty() )
+                {
+                    stats = candidate;
+                }
+            }
+        }
+
+        if( null == stats || stats.m_timers.isEmpty() && stats.m_counters.isEmpty() )
+        {
+            return;
+        }
+
+        if( stats.m_summary )
+        {
+            mojo.getLog().info( "[pax statistics]" );
+            mojo.getLog().info( pad( "phase", 32 ) + pad( "calls", 10 ) + "total (ms)" );
+            for( Iterator i = stats.m_timers.entrySet().iterator(); i.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) i.next();
+                long[] values = (long[]) entry.getValue();
+                String calls = pad( "" + values[0], 10 );
+                mojo.getLog().info( pad( (String) entry.getKey(), 32 ) + calls + millis( values[1] ) );
+            }
+            for( Iterator i = stats.m_counters.entrySet().iterator(); i.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) i.next();
+                long[] values = (long[]) entry.getValue();
+                mojo.getLog().info( pad( (String) entry.getKey(), 32 ) + pad( "", 10 ) + values[1] );
+            }
+        }
+
+        if( null != stats.m_jsonPath )
+        {
+            appendJson( mojo, stats, new File( stats.m_jsonPath ) );
+        }
+    }
+
+    /**
+     * @param mojo currently executing mojo
+     * @param stats statistics recorded during the goal
+     * @param jsonFile file collecting JSON records, one per line
+     */
+    private static void appendJson( Mojo mojo, GoalStats stats, File jsonFile )
+    {
+        StringBuffer buf = new StringBuffer();
+
+        buf.append( "{\"goal\":\"" ).append( mojo.getClass().getName() ).append( "\"" );
+        buf.append( ",\"time\":" ).append( System.currentTimeMillis() );
+
+        buf.append( ",\"timers\":{" );
+        for( Iterator i = stats.m_timers.entrySet().iterator(); i.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) i.next();
+            long[] values = (long[]) entry.getValue();
+            buf.append( '\"' ).append( entry.getKey() ).append( "\":{\"calls\":" ).append( values[0] );
+            buf.append( ",\"millis\":" ).append( millis( values[1] ) ).append( '}' );
+            if( i.hasNext() )
+            {
+                buf.append( ',' );
+            }
+        }
+
+        buf.append( "},\"counters\":{" );
+        for( Iterator i = stats.m_counters.entrySet().iterator(); i.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) i.next();
+            long[] values = (long[]) entry.getValue();
+            buf.append( '\"' ).append( entry.getKey() ).append( "\":" ).append( values[1] );
+            if( i.hasNext() )
+            {
+                buf.append( ',' );
+            }
+        }
+
+        buf.append( "}}\n" );
+
+        // several goals may report at the same time in a parallel build
+        synchronized( BuildStats.class )
+        {
+            Writer writer = null;
+            try
+            {
+                jsonFile.getAbsoluteFile().getParentFile().mkdirs();
+                writer = new FileWriter( jsonFile, true );
+                writer.write( buf.toString() );
+            }
+            catch( IOException e )
+            {
+                mojo.getLog().warn( "Unable to write statistics to " + jsonFile );
+            }
+            finally
+            {
+                IOUtil.close( writer );
+            }
+        }
+    }
+
+    /**
+     * @param nanos elapsed time in nanoseconds
+     * @return elapsed time in milliseconds, with three decimal places
+     */
+    private static String millis( long nanos )
+    {
+        String micros = Long.toString( 1000 + ( nanos / 1000 ) % 1000 );
+        return nanos / 1000000 + "." + micros.substring( 1 );
+    }
+
+    /**
+     * @param text column text
+     * @param width column width
+     * @return text padded with spaces to the column width
+     */
+    private static String pad( String text, int width )
+    {
+        StringBuffer buf = new StringBuffer( text );
+        while( buf.length() < width )
+        {
+            buf.append( ' ' );
+        }
+        return buf.append( ' ' ).toString();
+    }
+}
@@ -18,11 +18,9 @@ package org.ops4j.pax.construct.util;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
 
 import org.apache.maven.plugin.AbstractMojo;
-import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.FileUtils;
 
 /**
  * Various utility methods for caching files between plugins
@@ -40,50 +38,56 @@ public final class CacheUtils
     }
 
     /**
-     * Cache a text-based file inside the plugin context
+     * Snapshot a file into a cache directory, any previous snapshot with the same key is replaced
      * 
      * @param mojo currently executing mojo
+     * @param cacheDir cache directory, typically under the module's build directory
      * @param key unique identifier
-     * @param file text-based file
+     * @param file file to snapshot
      */
-    public static void pushFile( AbstractMojo mojo, String key, File file )
+    public static void pushFile( AbstractMojo mojo, File cacheDir, String key, File file )
     {
+        File snapshot = new File( cacheDir, key );
+
+        // don't restore stale content if the file has since been removed
+        snapshot.delete();
+
         if( file.exists() )
         {
             try
             {
-                Reader input = StreamFactory.newPlatformReader( file );
-                mojo.getPluginContext().put( key, IOUtil.toString( input ) );
-                IOUtil.close( input );
+                cacheDir.mkdirs();
+
+                // copy the raw bytes, so the content is restored exactly
+                FileUtils.copyFile( file, snapshot );
             }
             catch( IOException e )
             {
+                snapshot.delete();
+
                 mojo.getLog().warn( "Unable to read file into cache: " + file );
             }
         }
     }
 
     /**
-     * Restore a text-based file from the plugin context
+     * Restore a file from its snapshot in the cache directory
      * 
      * @param mojo currently executing mojo
+     * @param cacheDir cache directory, typically under the module's build directory
      * @param key unique identifier
-     * @param file text-based file
+     * @param file file to restore
      */
-    public static void pullFile( AbstractMojo mojo, String key, File file )
+    public static void pullFile( AbstractMojo mojo, File cacheDir, String key, File file )
     {
-        String input = (String) mojo.getPluginContext().get( key );
+        File snapshot = new File( cacheDir, key );
 
-        if( input != null )
+        if( snapshot.exists() )
         {
             try
             {
-                file.getParentFile().mkdirs();
-                file.createNewFile();
-
-                Writer output = StreamFactory.newPlatformWriter( file );
-                IOUtil.copy( input, output );
-                IOUtil.close( output );
+                // leaves the file untouched when the content hasn't changed
+                AtomicFileUtils.copy( snapshot, file );
             }
             catch( IOException e )
             {
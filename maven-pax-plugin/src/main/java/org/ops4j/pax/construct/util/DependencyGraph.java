@@ -0,0 +1,512 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ops4j.pax.construct.util.PomUtils.Pom;
+
+/**
+ * Forward and reverse dependency graph of the Maven POMs found in local project trees. Projects are numbered nodes
+ * with compact adjacency arrays, so "who depends on X" is answered without walking the tree, and POMs that change can
+ * be updated in place. Each local POM file gets its own entry, so trees that contain the same project more than once
+ * keep the edges of every copy. Lookups by id follow the same matching as {@link DirUtils#findPom(File, String)}.
+ */
+public class DependencyGraph
+{
+    /**
+     * Shared empty adjacency array
+     */
+    private static final int[] NO_EDGES = new int[0];
+
+    /**
+     * Maps "groupId:artifactId" to node number
+     */
+    private final Map m_nodeNumbers;
+
+    /**
+     * Maps alternative lookup keys (":artifactId", ":symbolicName" and "groupId:symbolicName") to node number
+     */
+    private final Map m_aliases;
+
+    /**
+     * Maps canonical POM files to entry number
+     */
+    private final Map m_fileEntries;
+
+    /**
+     * Canonical POM files (and directories without POMs) whose trees have already been added
+     */
+    private final Set m_indexedFiles;
+
+    /**
+     * Node number to "groupId:artifactId"
+     */
+    private String[] m_ids;
+
+    /**
+     * Node number to the entry of the first local POM with that id, -1 if the project is not in a local tree
+     */
+    private int[] m_owners;
+
+    /**
+     * Node number to the entries that depend on it, only the first {@link #m_dependentCounts} entries are used
+     */
+    private int[][] m_dependents;
+
+    /**
+     * Node number to the number of entries that depend on it
+     */
+    private int[] m_dependentCounts;
+
+    /**
+     * Number of nodes in the graph
+     */
+    private int m_nodeCount;
+
+    /**
+     * Entry number to local POM file, null if the POM has been removed
+     */
+    private File[] m_entryFiles;
+
+    /**
+     * Entry number to the node of its project
+     */
+    private int[] m_entryNodes;
+
+    /**
+     * Entry number to the nodes it depends on
+     */
+    private int[][] m_entryDependencies;
+
+    /**
+     * Number of entries in the graph
+     */
+    private int m_entryCount;
+
+    /**
+     * Create an empty graph, trees are added on demand
+     */
+    public DependencyGraph()
+    {
+        m_nodeNumbers = new HashMap();
+        m_aliases = new HashMap();
+        m_fileEntries = new HashMap();
+        m_indexedFiles = new HashSet();
+
+        m_ids = new String[16];
+        m_owners = new int[16];
+        m_dependents = new int[16][];
+        m_dependentCounts = new int[16];
+
+        m_entryFiles = new File[16];
+        m_entryNodes = new int[16];
+        m_entryDependencies = new int[16][];
+    }
+
+    /**
+     * Add the project tree containing the given directory, unless it has already been added
+     * 
+     * @param baseDir directory in the project tree
+     */
+    public synchronized void addTree( File baseDir )
+    {
+        File pomFile = DirUtils.resolveFile( new File( baseDir, "pom.xml" ), true );
+        if( m_indexedFiles.contains( pomFile ) )
+        {
+            return;
+        }
+
+        for( Iterator i = new PomIterator( baseDir ); i.hasNext(); )
+        {
+            Pom pom = (Pom) i.next();
+
+            m_indexedFiles.add( pom.getFile() );
+            update( pom );
+        }
+
+        // remember location even if it didn't have a POM
+        m_indexedFiles.add( pomFile );
+    }
+
+    /**
+     * Add or refresh a single POM, replacing any edges recorded from an earlier version of the same file
+     * 
+     * @param pom Maven project model
+     */
+    public synchronized void update( Pom pom )
+    {
+        File pomFile = pom.getFile();
+
+        // groupId or artifactId may have changed since the last update
+        int entry;
+        Integer oldEntry = (Integer) m_fileEntries.get( pomFile );
+        if( null != oldEntry )
+        {
+            entry = oldEntry.intValue();
+            detach( entry );
+        }
+        else
+        {
+            entry = newEntry();
+            m_fileEntries.put( pomFile, new Integer( entry ) );
+        }
+
+        int node = getNode( pom.getGroupId() + ':' + pom.getArtifactId() );
+
+        m_entryFiles[entry] = pomFile;
+        m_entryNodes[entry] = node;
+
+        // first local copy of a project wins, same as a tree search
+        if( m_owners[node] < 0 || m_owners[node] > entry )
+        {
+            m_owners[node] = entry;
+        }
+
+        addAlias( ':' + pom.getArtifactId(), node );
+        String symbolicName = pom.getBundleSymbolicName();
+        if( null != symbolicName )
+        {
+            addAlias( ':' + symbolicName, node );
+            addAlias( pom.getGroupId() + ':' + symbolicName, node );
+        }
+
+        Set ids = pom.getDependencyIds();
+
+        int[] dependencies = new int[ids.size()];
+        int n = 0;
+        for( Iterator i = ids.iterator(); i.hasNext(); )
+        {
+            int target = getNode( (String) i.next() );
+            if( target != node )
+            {
+                dependencies[n++] = target;
+                addDependent( target, entry );
+            }
+        }
+
+        if( n < dependencies.length )
+        {
+            int[] trimmed = new int[n];
+            System.arraycopy( dependencies, 0, trimmed, 0, n );
+            dependencies = trimmed;
+        }
+
+        m_entryDependencies[entry] = dependencies;
+    }
+
+    /**
+     * Drop a POM from the graph, for example when its project has been deleted
+     * 
+     * @param pom Maven project model
+     */
+    public synchronized void remove( Pom pom )
+    {
+        Integer entry = (Integer) m_fileEntries.remove( pom.getFile() );
+        if( null != entry )
+        {
+            detach( entry.intValue() );
+        }
+    }
+
+    /**
+     * @param pomId either artifactId or groupId:artifactId
+     * @return the local POM file with the given id, null if not found
+     */
+    public synchronized File findPomFile( String pomId )
+    {
+        // no searching required
+        if( PomUtils.isEmpty( pomId ) )
+        {
+            return null;
+        }
+
+        // handle groupId:artifactId:other:stuff
+        String[] fields = pomId.split( ":" );
+
+        Integer node;
+        if( fields.length > 1 )
+        {
+            String key = fields[0] + ':' + fields[1];
+
+            node = (Integer) m_nodeNumbers.get( key );
+            if( null == node || m_owners[node.intValue()] < 0 )
+            {
+                node = (Integer) m_aliases.get( key );
+            }
+        }
+        else
+        {
+            node = (Integer) m_aliases.get( ':' + pomId );
+        }
+
+        if( null == node || m_owners[node.intValue()] < 0 )
+        {
+            return null;
+        }
+
+        return m_entryFiles[m_owners[node.intValue()]];
+    }
+
+    /**
+     * @param pomId either artifactId or groupId:artifactId
+     * @return the local POM with the given id, null if not found
+     */
+    public Pom findPom( String pomId )
+    {
+        File pomFile = findPomFile( pomId );
+        if( null != pomFile )
+        {
+            try
+            {
+                return PomUtils.readPom( pomFile );
+            }
+            catch( IOException e )
+            {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param groupId project group id
+     * @param artifactId project artifact id
+     * @return local POM files that depend on the project, directly or via dependencyManagement
+     */
+    public synchronized List getDependents( String groupId, String artifactId )
+    {
+        List dependents = new ArrayList();
+
+        Integer node = (Integer) m_nodeNumbers.get( groupId + ':' + artifactId );
+        if( null != node )
+        {
+            int[] edges = m_dependents[node.intValue()];
+            int count = m_dependentCounts[node.intValue()];
+            for( int i = 0; i < count; i++ )
+            {
+                dependents.add( m_entryFiles[edges[i]] );
+            }
+        }
+
+        return dependents;
+    }
+
+    /**
+     * @param groupId project group id
+     * @param artifactId project artifact id
+     * @return "groupId:artifactId" of each dependency of the local project
+     */
+    public synchronized List getDependencies( String groupId, String artifactId )
+    {
+        List dependencies = new ArrayList();
+
+        Integer node = (Integer) m_nodeNumbers.get( groupId + ':' + artifactId );
+        if( null != node && m_owners[node.intValue()] >= 0 )
+        {
+            int[] edges = m_entryDependencies[m_owners[node.intValue()]];
+            for( int i = 0; i < edges.length; i++ )
+            {
+                dependencies.add( m_ids[edges[i]] );
+            }
+        }
+
+        return dependencies;
+    }
+
+    /**
+     * @param id "groupId:artifactId"
+     * @return existing or new node number
+     */
+    private int getNode( String id )
+    {
+        Integer node = (Integer) m_nodeNumbers.get( id );
+        if( null != node )
+        {
+            return node.intValue();
+        }
+
+        if( m_nodeCount == m_ids.length )
+        {
+            growNodes( m_nodeCount * 2 );
+        }
+
+        int newNode = m_nodeCount++;
+
+        m_ids[newNode] = id;
+        m_owners[newNode] = -1;
+        m_dependents[newNode] = NO_EDGES;
+
+        m_nodeNumbers.put( id, new Integer( newNode ) );
+
+        return newNode;
+    }
+
+    /**
+     * @return new entry number
+     */
+    private int newEntry()
+    {
+        if( m_entryCount == m_entryFiles.length )
+        {
+            growEntries( m_entryCount * 2 );
+        }
+
+        int newEntry = m_entryCount++;
+
+        m_entryNodes[newEntry] = -1;
+        m_entryDependencies[newEntry] = NO_EDGES;
+
+        return newEntry;
+    }
+
+    /**
+     * @param capacity new node capacity
+     */
+    private void growNodes( int capacity )
+    {
+        String[] ids = new String[capacity];
+        int[] owners = new int[capacity];
+        int[][] dependents = new int[capacity][];
+        int[] dependentCounts = new int[capacity];
+
+        System.arraycopy( m_ids, 0, ids, 0, m_nodeCount );
+        System.arraycopy( m_owners, 0, owners, 0, m_nodeCount );
+        System.arraycopy( m_dependents, 0, dependents, 0, m_nodeCount );
+        System.arraycopy( m_dependentCounts, 0, dependentCounts, 0, m_nodeCount );
+
+        m_ids = ids;
+        m_owners = owners;
+        m_dependents = dependents;
+        m_dependentCounts = dependentCounts;
+    }
+
+    /**
+     * @param capacity new entry capacity
+     */
+    private void growEntries( int capacity )
+    {
+        File[] files = new File[capacity];
+        int[] nodes = new int[capacity];
+        int[][] dependencies = new int[capacity][];
+
+        System.arraycopy( m_entryFiles, 0, files, 0, m_entryCount );
+        System.arraycopy( m_entryNodes, 0, nodes, 0, m_entryCount );
+        System.arraycopy( m_entryDependencies, 0, dependencies, 0, m_entryCount );
+
+        m_entryFiles = files;
+        m_entryNodes = nodes;
+        m_entryDependencies = dependencies;
+    }
+
+    /**
+     * @param key lookup key
+     * @param node node number
+     */
+    private void addAlias( String key, int node )
+    {
+        // first local project wins, same as a tree search
+        Integer existing = (Integer) m_aliases.get( key );
+        if( null == existing || m_owners[existing.intValue()] < 0 )
+        {
+            m_aliases.put( key, new Integer( node ) );
+        }
+    }
+
+    /**
+     * @param target node being depended on
+     * @param source entry that depends on the target
+     */
+    private void addDependent( int target, int source )
+    {
+        int count = m_dependentCounts[target];
+        int[] edges = m_dependents[target];
+
+        if( count == edges.length )
+        {
+            int[] grown = new int[Math.max( 4, count * 2 )];
+            System.arraycopy( edges, 0, grown, 0, count );
+            m_dependents[target] = edges = grown;
+        }
+
+        edges[count] = source;
+        m_dependentCounts[target] = count + 1;
+    }
+
+    /**
+     * Remove the local file and outgoing edges of an entry, handing its project over to the next local copy (if any)
+     * 
+     * @param entry entry number
+     */
+    private void detach( int entry )
+    {
+        int[] dependencies = m_entryDependencies[entry];
+        for( int i = 0; i < dependencies.length; i++ )
+        {
+            removeDependent( dependencies[i], entry );
+        }
+
+        m_entryDependencies[entry] = NO_EDGES;
+        m_entryFiles[entry] = null;
+
+        int node = m_entryNodes[entry];
+        m_entryNodes[entry] = -1;
+
+        if( node >= 0 && m_owners[node] == entry )
+        {
+            // entries are numbered in search order, so the lowest remaining one is the next copy found
+            m_owners[node] = -1;
+            for( int e = 0; e < m_entryCount; e++ )
+            {
+                if( m_entryNodes[e] == node )
+                {
+                    m_owners[node] = e;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param target node being depended on
+     * @param source entry that no longer depends on the target
+     */
+    private void removeDependent( int target, int source )
+    {
+        int count = m_dependentCounts[target];
+        int[] edges = m_dependents[target];
+
+        for( int i = 0; i < count; i++ )
+        {
+            if( edges[i] == source )
+            {
+                // order doesn't matter, so just swap in the last edge
+                edges[i] = edges[count - 1];
+                m_dependentCounts[target] = count - 1;
+                return;
+            }
+        }
+    }
+}
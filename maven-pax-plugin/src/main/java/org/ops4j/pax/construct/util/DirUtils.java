@@ -114,14 +114,22 @@ public final class DirUtils
             artifactId = pomId;
         }
 
-        for( Iterator i = new PomIterator( baseDir ); i.hasNext(); )
+        long startTime = BuildStats.start();
+        try
         {
-            Pom pom = (Pom) i.next();
-            if( sameProject( pom, groupId, artifactId ) )
+            for( Iterator i = new PomIterator( baseDir ); i.hasNext(); )
             {
-                return pom;
+                Pom pom = (Pom) i.next();
+                if( sameProject( pom, groupId, artifactId ) )
+                {
+                    return pom;
+                }
             }
         }
+        finally
+        {
+            BuildStats.stop( "tree.search", startTime );
+        }
 
         return null;
     }
@@ -154,91 +162,12 @@ public final class DirUtils
     public static Pom createModuleTree( File baseDir, File targetDir )
         throws IOException
     {
-        // shortcut: target directory already has a POM
-        File pomFile = new File( targetDir, "pom.xml" );
-        if( pomFile.exists() )
-        {
-            return PomUtils.readPom( pomFile );
-        }
-
-        String[] pivot = calculateRelativePath( baseDir, targetDir );
-        if( null == pivot )
-        {
-            // unable to find common parent directory!
-            return null;
-        }
-
-        File commonDir = new File( pivot[1] );
-        String descentPath = pivot[2];
-
-        Pom parentPom = null;
-        Pom childPom = null;
-
-        int i = 0;
-        int j = -1;
-
-        do
-        {
-            // check the next module pom...
-            String pathSoFar = descentPath.substring( 0, j + 1 );
-            pomFile = new File( commonDir, pathSoFar + "pom.xml" );
-
-            if( pomFile.exists() )
-            {
-                // existing pom, follow it along...
-                childPom = PomUtils.readPom( pomFile );
-            }
-            else if( parentPom != null && "pom".equals( parentPom.getPackaging() ) )
-            {
-                // no such pom, need to create new module pom
-                String module = descentPath.substring( i, j );
-                childPom = createMissingModulePom( parentPom, module, pomFile );
-            }
-            else
-            {
-                return null; // bad project structure: cannot add interim module
-            }
-
-            // descend to next pom
-            parentPom = childPom;
-
-            i = j + 1;
-            j = descentPath.indexOf( '/', i );
-
-        } while( j >= 0 );
-
-        // final pom in target directory
-        return childPom;
-    }
-
-    /**
-     * Add missing Maven project POM and attach to the parent project
-     * 
-     * @param parentPom parent project
-     * @param module new project module
-     * @param pomFile new project file
-     * @return the new Maven POM
-     * @throws IOException
-     */
-    private static Pom createMissingModulePom( Pom parentPom, String module, File pomFile )
-        throws IOException
-    {
-        // link parent to new module pom
-        parentPom.addModule( module, true );
-        parentPom.write();
+        ModuleTreeBuilder builder = new ModuleTreeBuilder( baseDir );
 
-        String groupId = PomUtils.getCompoundId( parentPom.getGroupId(), parentPom.getArtifactId() );
-        if( groupId.equals( parentPom.getGroupId() ) )
-        {
-            groupId += '.' + module;
-        }
+        Pom pom = builder.addModuleTree( targetDir );
+        builder.write();
 
-        // create missing module pom and link back to parent
-        Pom childPom = PomUtils.createModulePom( pomFile, groupId, module );
-        childPom.setParent( parentPom, null, true );
-        childPom.write();
-
-        return childPom;
+        return pom;
     }
 
     /**
@@ -415,7 +344,7 @@ public final class DirUtils
      * @param classpathElement classpath element, may be myProject/target/classes
      * @return the final bundle, null if it hasn't been built yet
      */
-    private static File locateBundle( File classpathElement )
+    public static File locateBundle( File classpathElement )
     {
         // assume standard output directory, ie. target/classes
         String outputDir = "target" + File.separator + "classes";
@@ -519,6 +448,8 @@ public final class DirUtils
     private static void unpack( File bundle, File here, EntryFilter filter )
         throws IOException
     {
+        long startTime = BuildStats.start();
+
         ZipFile zipFile = new ZipFile( bundle );
 
         try
@@ -548,12 +479,15 @@ public final class DirUtils
                         IOUtil.close( out );
                         IOUtil.close( in );
                     }
+
+                    BuildStats.count( "bytes.unpacked", file.length() );
                 }
             }
         }
         finally
         {
             zipFile.close();
+            BuildStats.stop( "unpack", startTime );
         }
     }
 
@@ -616,6 +550,50 @@ public final class DirUtils
         return pathList;
     }
 
+    /**
+     * Move the contents of one directory into another, merging with any existing content. Files are renamed where
+     * possible, only falling back to copying when the rename fails (for example across file-systems).
+     * 
+     * @param fromDir source directory, will be removed afterwards
+     * @param toDir target directory
+     * @throws IOException
+     */
+    public static void moveDirectory( File fromDir, File toDir )
+        throws IOException
+    {
+        // simple case: nothing in the way, so just rename the whole directory
+        if( !toDir.exists() )
+        {
+            toDir.getParentFile().mkdirs();
+            if( fromDir.renameTo( toDir ) )
+            {
+                return;
+            }
+        }
+
+        File[] files = fromDir.listFiles();
+        for( int i = 0; null != files && i < files.length; i++ )
+        {
+            File target = new File( toDir, files[i].getName() );
+            if( files[i].isDirectory() )
+            {
+                moveDirectory( files[i], target );
+            }
+            else
+            {
+                toDir.mkdirs();
+                target.delete();
+                if( !files[i].renameTo( target ) )
+                {
+                    FileUtils.copyFile( files[i], target );
+                    files[i].delete();
+                }
+            }
+        }
+
+        fromDir.delete();
+    }
+
     /**
      * Recursively delete (prune) all empty directories underneath the base directory
      * 
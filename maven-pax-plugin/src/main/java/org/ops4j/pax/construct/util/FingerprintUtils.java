@@ -0,0 +1,160 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Various utility methods for detecting when generated content is out of date
+ */
+public final class FingerprintUtils
+{
+    /**
+     * Hide constructor for utility class
+     */
+    private FingerprintUtils()
+    {
+        /*
+         * nothing to do
+         */
+    }
+
+    /**
+     * Cheap fingerprint based on file size and timestamp
+     * 
+     * @param file local file
+     * @return fingerprint of the file, empty if it doesn't exist
+     */
+    public static String fingerprint( File file )
+    {
+        if( null == file || !file.exists() )
+        {
+            return "";
+        }
+
+        return file.length() + "@" + file.lastModified();
+    }
+
+    /**
+     * Strong fingerprint based on the file contents
+     * 
+     * @param file local file
+     * @return hex-encoded MD5 digest of the file, empty if it can't be read
+     */
+    public static String digest( File file )
+    {
+        if( null == file || !file.isFile() )
+        {
+            return "";
+        }
+
+        InputStream in = null;
+        try
+        {
+            MessageDigest md5 = MessageDigest.getInstance( "MD5" );
+            in = new FileInputStream( file );
+
+            byte[] buf = new byte[8192];
+            for( int n = in.read( buf ); n >= 0; n = in.read( buf ) )
+            {
+                md5.update( buf, 0, n );
+            }
+
+            return toHex( md5.digest() );
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            // fall back to the cheap alternative
+            return fingerprint( file );
+        }
+        catch( IOException e )
+        {
+            return "";
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * @param bytes binary data
+     * @return hex-encoded string
+     */
+    static String toHex( byte[] bytes )
+    {
+        StringBuffer buf = new StringBuffer( bytes.length * 2 );
+        for( int i = 0; i < bytes.length; i++ )
+        {
+            int b = bytes[i] & 0xFF;
+            if( b < 0x10 )
+            {
+                buf.append( '0' );
+            }
+            buf.append( Integer.toHexString( b ) );
+        }
+        return buf.toString();
+    }
+
+    /**
+     * @param stampFile previously saved stamp
+     * @param fingerprint current fingerprint
+     * @return true if the stamp exists and matches the fingerprint, otherwise false
+     */
+    public static boolean isUpToDate( File stampFile, String fingerprint )
+    {
+        if( PomUtils.isEmpty( fingerprint ) || !stampFile.isFile() )
+        {
+            return false;
+        }
+
+        try
+        {
+            return fingerprint.equals( FileUtils.fileRead( stampFile.getPath() ) );
+        }
+        catch( IOException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @param stampFile stamp to be saved
+     * @param fingerprint current fingerprint
+     */
+    public static void saveStamp( File stampFile, String fingerprint )
+    {
+        try
+        {
+            stampFile.getParentFile().mkdirs();
+            FileUtils.fileWrite( stampFile.getPath(), fingerprint );
+        }
+        catch( IOException e )
+        {
+            // stale stamps are harmless, we'll just redo the work next time
+            stampFile.delete();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ops4j.pax.construct.util.PomUtils.Pom;
+
+/**
+ * Builds module trees for any number of target directories in memory, each POM along the way is read at most once and
+ * each new or updated POM is written exactly once when {@link #write()} is called
+ */
+public class ModuleTreeBuilder
+{
+    /**
+     * Base directory of the project
+     */
+    private final File m_baseDir;
+
+    /**
+     * POMs read or created so far, keyed by canonical file
+     */
+    private final Map m_poms;
+
+    /**
+     * POMs that need to be written, in the order they were changed
+     */
+    private final List m_changedPoms;
+
+    /**
+     * Identity set of changed POMs, as POM ids may change before they are written
+     */
+    private final Map m_changedIdentities;
+
+    /**
+     * @param baseDir base directory of the project
+     */
+    public ModuleTreeBuilder( File baseDir )
+    {
+        m_baseDir = baseDir;
+        m_poms = new HashMap();
+        m_changedPoms = new ArrayList();
+        m_changedIdentities = new IdentityHashMap();
+    }
+
+    /**
+     * @param targetDir target directory
+     * @return true if the target directory has a POM, either on disk or created earlier by this builder
+     * @throws IOException
+     */
+    public boolean hasPom( File targetDir )
+        throws IOException
+    {
+        return null != getPom( new File( targetDir, "pom.xml" ) );
+    }
+
+    /**
+     * Verify all Maven POMs from the base directory to the target, adding missing POMs in memory as required
+     * 
+     * @param targetDir target directory
+     * @return the Maven project in the target directory, null if it cannot be added to the project
+     * @throws IOException
+     */
+    public Pom addModuleTree( File targetDir )
+        throws IOException
+    {
+        // shortcut: target directory already has a POM (on disk or in memory)
+        File pomFile = new File( targetDir, "pom.xml" );
+        Pom targetPom = getPom( pomFile );
+        if( null != targetPom )
+        {
+            return targetPom;
+        }
+
+        String[] pivot = DirUtils.calculateRelativePath( m_baseDir, targetDir );
+        if( null == pivot )
+        {
+            // unable to find common parent directory!
+            return null;
+        }
+
+        File commonDir = new File( pivot[1] );
+        String descentPath = pivot[2];
+
+        Pom parentPom = null;
+        Pom childPom = null;
+
+        int i = 0;
+        int j = -1;
+
+        do
+        {
+            // check the next module pom...
+            String pathSoFar = descentPath.substring( 0, j + 1 );
+            pomFile = new File( commonDir, pathSoFar + "pom.xml" );
+
+            childPom = getPom( pomFile );
+            if( null == childPom )
+            {
+                if( parentPom != null && "pom".equals( parentPom.getPackaging() ) )
+                {
+                    // no such pom, need to create new module pom
+                    String module = descentPath.substring( i, j );
+                    childPom = createMissingModulePom( parentPom, module, pomFile );
+                }
+                else
+                {
+                    return null; // bad project structure: cannot add interim module
+                }
+            }
+
+            // descend to next pom
+            parentPom = childPom;
+
+            i = j + 1;
+            j = descentPath.indexOf( '/', i );
+
+        } while( j >= 0 );
+
+        // final pom in target directory
+        return childPom;
+    }
+
+    /**
+     * Mark a POM returned from this builder as changed, so it will be written along with the rest of the tree
+     * 
+     * @param pom Maven project model
+     */
+    public void markChanged( Pom pom )
+    {
+        if( null == m_changedIdentities.put( pom, pom ) )
+        {
+            m_changedPoms.add( pom );
+        }
+    }
+
+    /**
+     * Write each new or updated POM once, using background threads
+     * 
+     * @throws IOException
+     */
+    public void write()
+        throws IOException
+    {
+        List failedPoms = PomUtils.writePoms( m_changedPoms );
+
+        m_changedPoms.clear();
+        m_changedIdentities.clear();
+
+        if( !failedPoms.isEmpty() )
+        {
+            throw new IOException( "Unable to write " + ( (Pom) failedPoms.get( 0 ) ).getFile() );
+        }
+    }
+
+    /**
+     * @param pomFile POM file
+     * @return previously read or created POM, the POM on disk, or null if there is no such POM
+     * @throws IOException
+     */
+    private Pom getPom( File pomFile )
+        throws IOException
+    {
+        File key = DirUtils.resolveFile( pomFile, true );
+
+        Pom pom = (Pom) m_poms.get( key );
+        if( null == pom && key.exists() )
+        {
+            pom = PomUtils.readPom( key );
+            m_poms.put( key, pom );
+        }
+
+        return pom;
+    }
+
+    /**
+     * Add missing Maven project POM and attach to the parent project
+     * 
+     * @param parentPom parent project
+     * @param module new project module
+     * @param pomFile new project file
+     * @return the new Maven POM
+     * @throws IOException
+     */
+    private Pom createMissingModulePom( Pom parentPom, String module, File pomFile )
+        throws IOException
+    {
+        // link parent to new module pom
+        parentPom.addModule( module, true );
+        markChanged( parentPom );
+
+        String groupId = PomUtils.getCompoundId( parentPom.getGroupId(), parentPom.getArtifactId() );
+        if( groupId.equals( parentPom.getGroupId() ) )
+        {
+            groupId += '.' + module;
+        }
+
+        // create missing module pom and link back to parent
+        Pom childPom = PomUtils.createModulePom( pomFile, groupId, module );
+        childPom.setParent( parentPom, null, true );
+        markChanged( childPom );
+
+        m_poms.put( DirUtils.resolveFile( pomFile, true ), childPom );
+
+        return childPom;
+    }
+}
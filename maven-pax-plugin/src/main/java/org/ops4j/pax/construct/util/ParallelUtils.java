@@ -0,0 +1,160 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Various utility methods for running independent tasks concurrently
+ */
+public final class ParallelUtils
+{
+    /**
+     * Hide constructor for utility class
+     */
+    private ParallelUtils()
+    {
+        /*
+         * nothing to do
+         */
+    }
+
+    /**
+     * @param threads requested number of threads, zero or less means one per available processor
+     * @return actual number of threads to use
+     */
+    public static int getThreadCount( int threads )
+    {
+        if( threads > 0 )
+        {
+            return threads;
+        }
+
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Run a list of independent tasks using a fixed number of worker threads, waiting until all tasks are complete
+     * 
+     * @param tasks list of {@link Runnable} tasks, each task should handle its own errors
+     * @param threads maximum number of worker threads, zero or less means one per available processor
+     * @throws RuntimeException the first unexpected failure, rethrown once all the other tasks have finished
+     */
+    public static void runAll( List tasks, int threads )
+    {
+        final Iterator queue = tasks.iterator();
+
+        // first unexpected failure, reported back to the caller after the join
+        final RuntimeException[] failure = new RuntimeException[1];
+
+        Runnable worker = new Runnable()
+        {
+            public void run()
+            {
+                for( Runnable task = nextTask( queue ); task != null; task = nextTask( queue ) )
+                {
+                    try
+                    {
+                        task.run();
+                    }
+                    catch( RuntimeException e )
+                    {
+                        synchronized( failure )
+                        {
+                            if( null == failure[0] )
+                            {
+                                failure[0] = e;
+                            }
+                        }
+                    }
+                }
+            }
+        };
+
+        int workerCount = Math.min( getThreadCount( threads ), tasks.size() );
+        if( workerCount <= 1 )
+        {
+            // no point starting threads
+            worker.run();
+        }
+        else
+        {
+            runWorkers( worker, workerCount );
+        }
+
+        if( null != failure[0] )
+        {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * @param worker shared worker that drains the task queue
+     * @param workerCount number of worker threads
+     */
+    private static void runWorkers( Runnable worker, int workerCount )
+    {
+        Thread[] workers = new Thread[workerCount];
+        for( int i = 0; i < workers.length; i++ )
+        {
+            workers[i] = new Thread( worker, "pax-worker-" + i );
+            workers[i].setContextClassLoader( Thread.currentThread().getContextClassLoader() );
+            workers[i].setDaemon( true );
+            workers[i].start();
+        }
+
+        boolean interrupted = false;
+        for( int i = 0; i < workers.length; i++ )
+        {
+            while( workers[i].isAlive() )
+            {
+                try
+                {
+                    workers[i].join();
+                }
+                catch( InterruptedException e )
+                {
+                    // tasks may be writing files, so wait for them to finish
+                    interrupted = true;
+                }
+            }
+        }
+
+        if( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param queue shared task queue
+     * @return next task, null if the queue is empty
+     */
+    static Runnable nextTask( Iterator queue )
+    {
+        synchronized( queue )
+        {
+            if( queue.hasNext() )
+            {
+                return (Runnable) queue.next();
+            }
+        }
+
+        return null;
+    }
+}
@@ -42,14 +42,14 @@ public class PomIterator
     private Pom m_nextPom;
 
     /**
-     * All the POMs seen so far
+     * Canonical paths of all the POMs seen so far, only the current and next POMs are kept in memory
      */
     private Set m_visited;
 
     /**
-     * Initiating POM
+     * Initiating POM file, for local searches
      */
-    private Pom m_initialPom;
+    private File m_initialFile;
 
     /**
      * @param here a directory somewhere in the project tree
@@ -77,9 +77,9 @@ public class PomIterator
             m_pom = null;
         }
 
-        if( localSearch )
+        if( localSearch && null != m_pom )
         {
-            m_initialPom = m_pom;
+            m_initialFile = m_pom.getFile();
         }
     }
 
@@ -108,7 +108,7 @@ public class PomIterator
         // iterative search for next POM...
         while( null == m_nextPom && null != m_pom )
         {
-            if( m_visited.add( m_pom ) )
+            if( m_visited.add( m_pom.getFile().getPath() ) )
             {
                 // cache result
                 m_nextPom = m_pom;
@@ -129,16 +129,22 @@ public class PomIterator
     {
         for( Iterator i = m_pom.getModuleNames().iterator(); i.hasNext(); )
         {
-            Pom subPom = m_pom.getModulePom( (String) i.next() );
-            if( subPom != null && !m_visited.contains( subPom ) )
+            String name = (String) i.next();
+
+            // check the path first, so visited modules aren't parsed again when backtracking
+            if( !m_visited.contains( getModulePath( name ) ) )
             {
-                // visit module
-                return subPom;
+                Pom subPom = m_pom.getModulePom( name );
+                if( subPom != null && !m_visited.contains( subPom.getFile().getPath() ) )
+                {
+                    // visit module
+                    return subPom;
+                }
             }
         }
 
         // finished local search?
-        if( m_pom.equals( m_initialPom ) )
+        if( m_pom.getFile().equals( m_initialFile ) )
         {
             return null;
         }
@@ -147,6 +153,21 @@ public class PomIterator
         return m_pom.getContainingPom();
     }
 
+    /**
+     * @param name module name
+     * @return canonical path of the module POM
+     */
+    private String getModulePath( String name )
+    {
+        File moduleFile = new File( m_pom.getBasedir(), name );
+        if( moduleFile.isDirectory() )
+        {
+            moduleFile = new File( moduleFile, "pom.xml" );
+        }
+
+        return DirUtils.resolveFile( moduleFile, true ).getPath();
+    }
+
     /**
      * {@inheritDoc}
      */
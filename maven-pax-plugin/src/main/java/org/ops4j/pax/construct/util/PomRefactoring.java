@@ -0,0 +1,232 @@
+package org.ops4j.pax.construct.util;
+
+/*
+ * Copyright 2026 OPS4J
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.logging.Log;
+import org.ops4j.pax.construct.util.PomUtils.Pom;
+
+/**
+ * Collects a batch of dependency changes across the project tree, then applies them using the dependency graph so only
+ * POMs that refer to the changed projects are read, and each of them is rewritten once
+ */
+public class PomRefactoring
+{
+    /**
+     * A directory in the project tree
+     */
+    private final File m_baseDir;
+
+    /**
+     * Queued changes, maps "groupId:artifactId" to the new groupId, or null if the dependency should be removed
+     */
+    private final Map m_changes;
+
+    /**
+     * Canonical POM files that should be left untouched
+     */
+    private final Set m_ignoredFiles;
+
+    /**
+     * Dependency graph of the project tree, built on first use
+     */
+    private final DependencyGraph m_graph;
+
+    /**
+     * @param baseDir a directory in the project tree
+     */
+    public PomRefactoring( File baseDir )
+    {
+        m_baseDir = baseDir;
+        m_changes = new LinkedHashMap();
+        m_ignoredFiles = new HashSet();
+        m_graph = new DependencyGraph();
+    }
+
+    /**
+     * @param groupId dependency group id
+     * @param artifactId dependency artifact id
+     */
+    public void removeDependency( String groupId, String artifactId )
+    {
+        m_changes.put( groupId + ':' + artifactId, null );
+    }
+
+    /**
+     * @param oldGroupId current dependency group id
+     * @param artifactId dependency artifact id
+     * @param newGroupId new dependency group id
+     */
+    public void updateDependencyGroup( String oldGroupId, String artifactId, String newGroupId )
+    {
+        if( !oldGroupId.equals( newGroupId ) )
+        {
+            m_changes.put( oldGroupId + ':' + artifactId, newGroupId );
+        }
+    }
+
+    /**
+     * @param pom Maven POM that should not be updated
+     */
+    public void ignore( Pom pom )
+    {
+        m_ignoredFiles.add( DirUtils.resolveFile( pom.getFile(), true ) );
+    }
+
+    /**
+     * Apply all queued changes to the project tree, writing each affected POM once
+     * 
+     * @param log logger for progress and problems
+     * @return number of POMs that were updated
+     */
+    public int apply( Log log )
+    {
+        if( m_changes.isEmpty() )
+        {
+            return 0;
+        }
+
+        m_graph.addTree( m_baseDir );
+
+        // each affected POM is read once, in the order it was first found
+        Map affectedPoms = new LinkedHashMap();
+
+        // each changed POM is written once, even when several changes apply to it
+        List changedPoms = new ArrayList();
+        Map changedIdentities = new IdentityHashMap();
+
+        for( Iterator i = m_changes.entrySet().iterator(); i.hasNext(); )
+        {
+            Map.Entry change = (Map.Entry) i.next();
+            String id = (String) change.getKey();
+            String newGroupId = (String) change.getValue();
+
+            int split = id.indexOf( ':' );
+            List dependents = m_graph.getDependents( id.substring( 0, split ), id.substring( split + 1 ) );
+            for( Iterator j = dependents.iterator(); j.hasNext(); )
+            {
+                Pom pom = getPom( affectedPoms, (File) j.next(), log );
+                if( null == pom || !applyChange( pom, id, newGroupId, log ) )
+                {
+                    continue;
+                }
+
+                if( null == changedIdentities.put( pom, pom ) )
+                {
+                    changedPoms.add( pom );
+                }
+            }
+        }
+
+        Map failedIdentities = new IdentityHashMap();
+        for( Iterator i = PomUtils.writePoms( changedPoms ).iterator(); i.hasNext(); )
+        {
+            Object pom = i.next();
+            failedIdentities.put( pom, pom );
+        }
+
+        for( Iterator i = changedPoms.iterator(); i.hasNext(); )
+        {
+            Pom pom = (Pom) i.next();
+            if( failedIdentities.containsKey( pom ) )
+            {
+                log.warn( "Problem writing Maven POM: " + pom.getFile() );
+            }
+            else
+            {
+                m_graph.update( pom );
+            }
+        }
+
+        m_changes.clear();
+
+        return changedPoms.size();
+    }
+
+    /**
+     * @param affectedPoms POMs read so far, keyed by file
+     * @param pomFile POM file
+     * @param log logger for problems
+     * @return the POM, null if it is ignored or cannot be read
+     */
+    private Pom getPom( Map affectedPoms, File pomFile, Log log )
+    {
+        if( m_ignoredFiles.contains( pomFile ) )
+        {
+            return null;
+        }
+
+        Pom pom = (Pom) affectedPoms.get( pomFile );
+        if( null == pom )
+        {
+            try
+            {
+                pom = PomUtils.readPom( pomFile );
+                affectedPoms.put( pomFile, pom );
+            }
+            catch( IOException e )
+            {
+                log.warn( "Problem reading Maven POM: " + pomFile );
+            }
+        }
+
+        return pom;
+    }
+
+    /**
+     * @param pom Maven POM referring to the dependency
+     * @param id dependency id, "groupId:artifactId"
+     * @param newGroupId new dependency group id, null if the dependency should be removed
+     * @param log logger for progress
+     * @return true if the POM was updated, otherwise false
+     */
+    private static boolean applyChange( Pom pom, String id, String newGroupId, Log log )
+    {
+        int split = id.indexOf( ':' );
+
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( id.substring( 0, split ) );
+        dependency.setArtifactId( id.substring( split + 1 ) );
+
+        if( null == newGroupId )
+        {
+            if( pom.removeDependency( dependency ) )
+            {
+                log.info( "Removing " + id + " from " + pom );
+                return true;
+            }
+        }
+        else if( pom.updateDependencyGroup( dependency, newGroupId ) )
+        {
+            log.info( "Updating " + newGroupId + ':' + dependency.getArtifactId() + " in " + pom );
+            return true;
+        }
+
+        return false;
+    }
+}
@@ -18,10 +18,12 @@ package org.ops4j.pax.construct.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -47,6 +49,11 @@ import org.apache.maven.project.MavenProject;
  */
 public final class PomUtils
 {
+    /**
+     * Smallest batch of POMs that is worth writing in parallel
+     */
+    private static final int PARALLEL_WRITE_THRESHOLD = 8;
+
     /**
      * Hide constructor for utility class
      */
@@ -128,6 +135,11 @@ public final class PomUtils
          */
         String getBundleSymbolicName();
 
+        /**
+         * @return groupId:artifactId of each dependency and managed dependency in this project
+         */
+        Set getDependencyIds();
+
         /**
          * @param pom the new logical parent project
          * @param relativePath the relative path from this POM to its new parent
@@ -156,6 +168,11 @@ public final class PomUtils
          */
         void setVersion( String newVersion );
 
+        /**
+         * @param newPackaging the new project packaging
+         */
+        void setPackaging( String newPackaging );
+
         /**
          * @param repository a Maven repository
          * @param snapshots enable snapshots for this repository
@@ -344,6 +361,49 @@ public final class PomUtils
         return new XppPom( candidate, groupId, artifactId );
     }
 
+    /**
+     * Write a batch of Maven POMs, using background threads for larger batches, and wait until all have been written
+     * 
+     * @param poms list of Maven POMs to write
+     * @return list of POMs that could not be written
+     */
+    public static List writePoms( List poms )
+    {
+        final List failedPoms = Collections.synchronizedList( new ArrayList() );
+
+        List tasks = new ArrayList();
+        for( Iterator i = poms.iterator(); i.hasNext(); )
+        {
+            final Pom pom = (Pom) i.next();
+            tasks.add( new Runnable()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                public void run()
+                {
+                    try
+                    {
+                        pom.write();
+                    }
+                    catch( IOException e )
+                    {
+                        failedPoms.add( pom );
+                    }
+                    catch( RuntimeException e )
+                    {
+                        failedPoms.add( pom );
+                    }
+                }
+            } );
+        }
+
+        // starting threads costs more than writing a handful of POMs
+        ParallelUtils.runAll( tasks, tasks.size() < PARALLEL_WRITE_THRESHOLD ? 1 : 0 );
+
+        return failedPoms;
+    }
+
     /**
      * @param project Maven project
      * @return true if this is an OSGi bundle project, otherwise false
@@ -453,6 +513,7 @@ public final class PomUtils
     {
         if( artifact.getFile() == null || !artifact.getFile().exists() )
         {
+            long startTime = BuildStats.start();
             try
             {
                 resolver.resolve( artifact, remoteRepos, localRepo );
@@ -465,6 +526,10 @@ public final class PomUtils
             {
                 return false;
             }
+            finally
+            {
+                BuildStats.stop( "resolve", startTime );
+            }
         }
 
         return true;
@@ -19,15 +19,26 @@ package org.ops4j.pax.construct.util;
 import java.lang.reflect.Field;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.maven.plugin.AbstractMojo;
-import org.apache.maven.plugin.logging.Log;
 
 /**
  * Provide access to private inherited mojo fields
  */
 public final class ReflectMojo
 {
+    /**
+     * Accessible fields for each super-mojo, resolved on demand and shared between all mojo instances in the build
+     */
+    private static final Map FIELD_CACHE = new HashMap();
+
+    /**
+     * Marker for fields that don't exist (or are not accessible)
+     */
+    private static final Object NO_SUCH_FIELD = new Object();
+
     /**
      * Maven mojo instance
      */
@@ -50,52 +61,66 @@ public final class ReflectMojo
 
     /**
      * @param name field name
-     * @return reflected field
+     * @return reflected field, already made accessible
      * @throws NoSuchFieldException
      */
     Field getMojoField( String name )
         throws NoSuchFieldException
     {
-        return m_clazz.getDeclaredField( name );
-    }
+        Map fields;
+        synchronized( FIELD_CACHE )
+        {
+            fields = (Map) FIELD_CACHE.get( m_clazz );
+            if( null == fields )
+            {
+                fields = new HashMap();
+                FIELD_CACHE.put( m_clazz, fields );
+            }
+        }
 
-    /**
-     * @return mojo instance
-     */
-    AbstractMojo getMojoInstance()
-    {
-        return m_mojo;
-    }
+        Object field;
+        synchronized( fields )
+        {
+            field = fields.get( name );
+            if( null == field )
+            {
+                field = resolveField( m_clazz, name );
+                fields.put( name, field );
+            }
+        }
 
-    /**
-     * @return mojo logger
-     */
-    Log getMojoLogger()
-    {
-        return m_mojo.getLog();
+        if( NO_SUCH_FIELD == field )
+        {
+            throw new NoSuchFieldException( name );
+        }
+
+        return (Field) field;
     }
 
     /**
-     * @param name name of the field member
-     * @return true if the field exists, otherwise false
+     * @param clazz inherited super-mojo
+     * @param name field name
+     * @return accessible field, or {@link #NO_SUCH_FIELD} if it doesn't exist or can't be accessed
      */
-    public boolean hasField( final String name )
+    private static Object resolveField( final Class clazz, final String name )
     {
-        return null != AccessController.doPrivileged( new PrivilegedAction()
+        return AccessController.doPrivileged( new PrivilegedAction()
         {
             public Object run()
             {
                 try
                 {
-                    return getMojoField( name );
+                    Field f = clazz.getDeclaredField( name );
+                    f.setAccessible( true );
+                    return f;
                 }
                 catch( NoSuchFieldException e )
                 {
-                    return null;
+                    return NO_SUCH_FIELD;
                 }
                 catch( SecurityException e )
                 {
-                    return null;
+                    return NO_SUCH_FIELD;
                 }
             }
         } );
@@ -103,72 +128,71 @@ public final class ReflectMojo
 
     /**
      * @param name name of the field member
-     * @param value the new value for the field
+     * @return true if the field exists, otherwise false
      */
-    public void setField( final String name, final Object value )
+    public boolean hasField( String name )
     {
-        AccessController.doPrivileged( new PrivilegedAction()
+        try
         {
-            public Object run()
-            {
-                try
-                {
-                    final Object safeValue;
-                    Field f = getMojoField( name );
-
-                    if( boolean.class.equals( f.getType() ) )
-                    {
-                        safeValue = Boolean.valueOf( value.toString() );
-                    }
-                    else
-                    {
-                        safeValue = value;
-                    }
+            return null != getMojoField( name );
+        }
+        catch( NoSuchFieldException e )
+        {
+            return false;
+        }
+    }
 
-                    f.setAccessible( true );
-                    f.set( getMojoInstance(), safeValue );
-                }
-                catch( NoSuchFieldException e )
-                {
-                    getMojoLogger().error( "Unknown field " + name, e );
-                }
-                catch( IllegalAccessException e )
-                {
-                    getMojoLogger().error( "Cannot set field " + name, e );
-                }
+    /**
+     * @param name name of the field member
+     * @param value the new value for the field
+     */
+    public void setField( String name, Object value )
+    {
+        try
+        {
+            final Object safeValue;
+            Field f = getMojoField( name );
 
-                return null;
+            if( boolean.class.equals( f.getType() ) )
+            {
+                safeValue = Boolean.valueOf( value.toString() );
             }
-        } );
+            else
+            {
+                safeValue = value;
+            }
+
+            f.set( m_mojo, safeValue );
+        }
+        catch( NoSuchFieldException e )
+        {
+            m_mojo.getLog().error( "Unknown field " + name, e );
+        }
+        catch( IllegalAccessException e )
+        {
+            m_mojo.getLog().error( "Cannot set field " + name, e );
+        }
     }
 
     /**
      * @param name name of the field member
      * @return the current value in the field
      */
-    public Object getField( final String name )
+    public Object getField( String name )
     {
-        return AccessController.doPrivileged( new PrivilegedAction()
+        try
         {
-            public Object run()
-            {
-                try
-                {
-                    Field f = getMojoField( name );
-                    f.setAccessible( true );
-                    return f.get( getMojoInstance() );
-                }
-                catch( NoSuchFieldException e )
-                {
-                    getMojoLogger().error( "Unknown field " + name, e );
-                }
-                catch( IllegalAccessException e )
-                {
-                    getMojoLogger().error( "Cannot get field " + name, e );
-                }
+            return getMojoField( name ).get( m_mojo );
+        }
+        catch( NoSuchFieldException e )
+        {
+            m_mojo.getLog().error( "Unknown field " + name, e );
+        }
+        catch( IllegalAccessException e )
+        {
+            m_mojo.getLog().error( "Cannot get field " + name, e );
+        }
 
-                return null;
-            }
-        } );
+        return null;
     }
 }
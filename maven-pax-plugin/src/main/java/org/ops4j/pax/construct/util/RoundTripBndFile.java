@@ -21,11 +21,14 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
 import java.util.Set;
 
 import org.codehaus.plexus.util.IOUtil;
@@ -38,20 +41,30 @@ import org.ops4j.pax.construct.util.BndUtils.ExistingInstructionException;
 public class RoundTripBndFile
     implements Bnd
 {
+    /**
+     * Bnd files are loaded as Java properties, and this encoding also keeps any other bytes exactly as they were read
+     */
+    private static final String BND_ENCODING = "ISO-8859-1";
+
     /**
      * Underlying Bnd file
      */
     private final File m_file;
 
     /**
-     * Current instructions
+     * Document model, in file order: comment or whitespace lines (as strings) and {@link Instruction}s
+     */
+    private List m_document;
+
+    /**
+     * Current instructions, in file order followed by any new instructions
      */
-    private Properties m_newInstructions;
+    private final Map m_instructions;
 
     /**
-     * Last saved instructions
+     * True if the instructions have changed since the document was last saved
      */
-    private Properties m_oldInstructions;
+    private boolean m_modified;
 
     /**
      * @param bndFile property file containing Bnd instructions
@@ -63,17 +76,15 @@ public class RoundTripBndFile
         // protect against changes in working directory
         m_file = DirUtils.resolveFile( bndFile, true );
 
-        m_oldInstructions = new Properties();
-        m_newInstructions = new Properties();
+        m_document = new ArrayList();
+        m_instructions = new LinkedHashMap();
 
         if( m_file.exists() )
         {
-            FileInputStream bndStream = new FileInputStream( m_file );
-            m_oldInstructions.load( bndStream );
-            IOUtil.close( bndStream );
+            long startTime = BuildStats.start();
+            parseDocument( readLines() );
+            BuildStats.stop( "bnd.read", startTime );
         }
-
-        m_newInstructions.putAll( m_oldInstructions );
     }
 
     /**
@@ -81,7 +92,13 @@ public class RoundTripBndFile
      */
     public String getInstruction( String directive )
     {
-        return m_newInstructions.getProperty( directive );
+        Instruction instruction = (Instruction) m_instructions.get( directive );
+        if( null != instruction )
+        {
+            return instruction.getValue();
+        }
+
+        return null;
     }
 
     /**
@@ -90,16 +107,21 @@ public class RoundTripBndFile
     public void setInstruction( String directive, String instruction, boolean overwrite )
         throws ExistingInstructionException
     {
-        if( overwrite || !m_newInstructions.containsKey( directive ) )
+        Instruction existing = (Instruction) m_instructions.get( directive );
+
+        if( overwrite || null == existing )
         {
-            if( null == instruction )
+            if( null == existing )
             {
-                // map null instructions to the empty string
-                m_newInstructions.setProperty( directive, "" );
+                existing = new Instruction( directive );
+                m_instructions.put( directive, existing );
+                m_modified = true;
             }
-            else
+
+            // map null instructions to the empty string
+            if( existing.setValue( null == instruction ? "" : instruction ) )
             {
-                m_newInstructions.setProperty( directive, instruction );
+                m_modified = true;
             }
         }
         else
@@ -113,7 +135,13 @@ public class RoundTripBndFile
      */
     public boolean removeInstruction( String directive )
     {
-        return null != m_newInstructions.remove( directive );
+        if( null != m_instructions.remove( directive ) )
+        {
+            m_modified = true;
+            return true;
+        }
+
+        return false;
     }
 
     /**
@@ -121,7 +149,7 @@ public class RoundTripBndFile
      */
     public Set getDirectives()
     {
-        return m_newInstructions.keySet();
+        return Collections.unmodifiableSet( m_instructions.keySet() );
     }
 
     /**
@@ -169,104 +197,140 @@ public class RoundTripBndFile
     public void write()
         throws IOException
     {
-        if( !m_newInstructions.equals( m_oldInstructions ) || !m_file.exists() )
+        if( m_modified || !m_file.exists() )
         {
-            writeUpdatedInstructions();
+            applyEdits();
+            writeDocument();
         }
 
-        m_oldInstructions.clear();
-        m_oldInstructions.putAll( m_newInstructions );
+        m_modified = false;
     }
 
     /**
-     * Write changes to disk, preserving formatting of unaffected lines
+     * Split the lines of the Bnd file into comments and instructions
      * 
-     * @throws IOException
+     * @param lines lines from the Bnd file
      */
-    private void writeUpdatedInstructions()
-        throws IOException
+    private void parseDocument( List lines )
     {
-        List lines = readLines();
-        List block = new ArrayList();
-
-        boolean skip = false;
-        boolean echo = true;
-
-        Properties instructions = new Properties();
-        instructions.putAll( m_newInstructions );
-
         for( Iterator i = lines.iterator(); i.hasNext(); )
         {
             String line = (String) i.next();
 
             if( isWhitespaceOrComment( line ) )
             {
-                block.add( line );
-                skip = false;
+                m_document.add( line );
+                continue;
             }
-            else
+
+            List instructionLines = new ArrayList();
+            instructionLines.add( line );
+
+            // continuation lines always belong to the instruction, same as java.util.Properties
+            while( isLineContinuation( line ) && i.hasNext() )
             {
-                if( !skip )
-                {
-                    // check to see if we should update / remove / leave alone
-                    echo = checkInstructionLine( block, line, instructions );
-                }
+                line = (String) i.next();
+                instructionLines.add( line );
+            }
+
+            Instruction instruction = new Instruction( instructionLines );
+            m_document.add( instruction );
+
+            // last definition wins, earlier duplicates will be dropped on the next write
+            m_instructions.put( instruction.getDirective(), instruction );
+        }
+    }
+
+    /**
+     * Update the document model in place: drop removed instructions (and their comments), append new instructions
+     */
+    private void applyEdits()
+    {
+        List document = new ArrayList( m_document.size() + m_instructions.size() );
 
-                if( echo )
+        for( Iterator i = m_document.iterator(); i.hasNext(); )
+        {
+            Object element = i.next();
+            if( element instanceof Instruction )
+            {
+                Instruction instruction = (Instruction) element;
+                if( m_instructions.get( instruction.getDirective() ) != instruction )
                 {
-                    block.add( line );
+                    // remove old instruction comment
+                    removeInstructionComment( document );
+                    continue;
                 }
-
-                // continue skipping to end of line
-                skip = isLineContinuation( line );
             }
+
+            document.add( element );
         }
 
-        // append any new instructions...
-        for( Enumeration e = instructions.keys(); e.hasMoreElements(); )
+        // append any new instructions, in the order they were added
+        for( Iterator i = m_instructions.values().iterator(); i.hasNext(); )
         {
-            String key = (String) e.nextElement();
-            String value = instructions.getProperty( key );
-            writeInstruction( block, key, value );
+            Instruction instruction = (Instruction) i.next();
+            if( instruction.isNew() )
+            {
+                document.add( instruction );
+            }
         }
 
-        // finally write updated text back to the file
-        BufferedWriter writer = new BufferedWriter( StreamFactory.newPlatformWriter( m_file ) );
-        writeInstructionBlock( writer, block );
-        IOUtil.close( writer );
+        m_document = document;
     }
 
     /**
-     * Write a block of comments and instructions to the Bnd file
+     * Write the document model to disk in one pass, unchanged instructions are written exactly as they were read
      * 
-     * @param bndWriter writer for the Bnd file
-     * @param block comment block
      * @throws IOException
      */
-    private static void writeInstructionBlock( BufferedWriter bndWriter, List block )
+    private void writeDocument()
         throws IOException
     {
-        boolean needSpace = false;
-        for( Iterator i = block.iterator(); i.hasNext(); )
-        {
-            String line = (String) i.next();
+        long startTime = BuildStats.start();
 
-            boolean isSpace = isWhitespaceOrComment( line );
+        // build the document in memory, so the file is either replaced in one go or left untouched
+        StringWriter buf = new StringWriter();
+        BufferedWriter bndWriter = new BufferedWriter( buf );
 
-            if( needSpace && !isSpace )
+        try
+        {
+            boolean needSpace = false;
+            for( Iterator i = m_document.iterator(); i.hasNext(); )
             {
-                bndWriter.newLine();
-            }
+                Object element = i.next();
+                if( element instanceof Instruction )
+                {
+                    if( needSpace )
+                    {
+                        bndWriter.newLine();
+                    }
 
-            needSpace = false;
+                    for( Iterator j = ( (Instruction) element ).getLines().iterator(); j.hasNext(); )
+                    {
+                        bndWriter.write( (String) j.next() );
+                        bndWriter.newLine();
+                    }
 
-            if( !isSpace && !isLineContinuation( line ) )
-            {
-                needSpace = true;
+                    needSpace = true;
+                }
+                else
+                {
+                    bndWriter.write( (String) element );
+                    bndWriter.newLine();
+
+                    needSpace = false;
+                }
             }
 
-            bndWriter.write( line );
-            bndWriter.newLine();
+            bndWriter.flush();
+
+            // same encoding as when the file is read
+            AtomicFileUtils.write( m_file, buf.toString().getBytes( BND_ENCODING ) );
+        }
+        finally
+        {
+            IOUtil.close( bndWriter );
+            BuildStats.stop( "bnd.write", startTime );
         }
     }
 
@@ -281,69 +345,42 @@ public class RoundTripBndFile
     {
         List lines = new ArrayList();
 
-        if( m_file.exists() )
+        InputStreamReader in = new InputStreamReader( new FileInputStream( m_file ), BND_ENCODING );
+        BufferedReader bndReader = new BufferedReader( in );
+        try
         {
-            BufferedReader bndReader = new BufferedReader( StreamFactory.newPlatformReader( m_file ) );
-            while( bndReader.ready() )
+            for( String line = bndReader.readLine(); line != null; line = bndReader.readLine() )
             {
-                lines.add( bndReader.readLine() );
+                lines.add( line );
             }
-            IOUtil.close( bndReader );
         }
-
-        return lines;
-    }
-
-    /**
-     * Check existing line against instructions and update if necessary
-     * 
-     * @param block comment block
-     * @param line existing line
-     * @param instructions the instructions to write to disk
-     * @return true if existing line should be echoed unchanged, otherwise false
-     */
-    private boolean checkInstructionLine( List block, String line, Properties instructions )
-    {
-        String[] keyAndValue = line.split( "[=: \t\r\n\f]", 2 );
-        String key = keyAndValue[0].trim();
-
-        if( instructions.containsKey( key ) )
+        finally
         {
-            String newValue = (String) instructions.remove( key );
-            if( newValue.equals( m_oldInstructions.getProperty( key ) ) )
-            {
-                // no change
-                return true;
-            }
-
-            // old instruction has been altered
-            writeInstruction( block, key, newValue );
-            return false;
+            IOUtil.close( bndReader );
         }
 
-        // remove old instruction comment
-        removeInstructionComment( block );
-        return false;
+        return lines;
     }
 
     /**
      * Remove the comment that's directly attached to the current instruction
      * 
-     * @param block comment block
+     * @param document document model
      */
-    private static void removeInstructionComment( List block )
+    private static void removeInstructionComment( List document )
     {
-        while( !block.isEmpty() )
+        while( !document.isEmpty() )
         {
-            // remove lines in reverse
-            String line = (String) block.remove( block.size() - 1 );
+            Object element = document.get( document.size() - 1 );
 
-            // assume comment ends once we see an empty line or a non-comment
-            if( line.trim().length() == 0 || !isWhitespaceOrComment( line ) )
+            // assume comment ends once we see an empty line or an instruction
+            if( !( element instanceof String ) || ( (String) element ).trim().length() == 0 )
             {
-                block.add( line );
                 return;
             }
+
+            // remove lines in reverse
+            document.remove( document.size() - 1 );
         }
     }
 
@@ -377,6 +414,145 @@ public class RoundTripBndFile
         return continueLine;
     }
 
+    /**
+     * @param c character
+     * @return true if the character is treated as whitespace in property files
+     */
+    private static boolean isPropertyWhitespace( char c )
+    {
+        return ' ' == c || '\t' == c || '\f' == c;
+    }
+
+    /**
+     * Parse the directive and instruction from the raw lines, following the rules of java.util.Properties
+     * 
+     * @param lines raw instruction lines, including any continuation lines
+     * @return directive and instruction
+     */
+    static String[] parseInstruction( List lines )
+    {
+        StringBuffer buf = new StringBuffer();
+        for( Iterator i = lines.iterator(); i.hasNext(); )
+        {
+            String line = (String) i.next();
+
+            // leading whitespace is ignored on every line
+            int start = 0;
+            while( start < line.length() && isPropertyWhitespace( line.charAt( start ) ) )
+            {
+                start++;
+            }
+
+            int end = line.length();
+            if( isLineContinuation( line ) )
+            {
+                end--;
+            }
+
+            buf.append( line.substring( start, Math.max( start, end ) ) );
+        }
+
+        String text = buf.toString();
+
+        // directive ends at the first unescaped separator
+        int keyEnd = 0;
+        while( keyEnd < text.length() )
+        {
+            char c = text.charAt( keyEnd );
+            if( '\\' == c )
+            {
+                keyEnd++;
+            }
+            else if( '=' == c || ':' == c || isPropertyWhitespace( c ) )
+            {
+                break;
+            }
+            keyEnd++;
+        }
+
+        keyEnd = Math.min( keyEnd, text.length() );
+
+        int valueStart = keyEnd;
+        while( valueStart < text.length() && isPropertyWhitespace( text.charAt( valueStart ) ) )
+        {
+            valueStart++;
+        }
+        if( valueStart < text.length() && ( '=' == text.charAt( valueStart ) || ':' == text.charAt( valueStart ) ) )
+        {
+            valueStart++;
+        }
+        while( valueStart < text.length() && isPropertyWhitespace( text.charAt( valueStart ) ) )
+        {
+            valueStart++;
+        }
+
+        return new String[]
+        {
+            unescape( text.substring( 0, keyEnd ) ), unescape( text.substring( valueStart ) )
+        };
+    }
+
+    /**
+     * @param text escaped property text
+     * @return unescaped property text
+     */
+    private static String unescape( String text )
+    {
+        if( text.indexOf( '\\' ) < 0 )
+        {
+            return text;
+        }
+
+        StringBuffer buf = new StringBuffer( text.length() );
+        for( int i = 0; i < text.length(); i++ )
+        {
+            char c = text.charAt( i );
+            if( '\\' != c || i + 1 >= text.length() )
+            {
+                buf.append( c );
+                continue;
+            }
+
+            c = text.charAt( ++i );
+            switch( c )
+            {
+                case 't':
+                    buf.append( '\t' );
+                    break;
+                case 'n':
+                    buf.append( '\n' );
+                    break;
+                case 'r':
+                    buf.append( '\r' );
+                    break;
+                case 'f':
+                    buf.append( '\f' );
+                    break;
+                case 'u':
+                    if( i + 4 < text.length() )
+                    {
+                        try
+                        {
+                            buf.append( (char) Integer.parseInt( text.substring( i + 1, i + 5 ), 16 ) );
+                            i += 4;
+                            break;
+                        }
+                        catch( NumberFormatException e )
+                        {
+                            // not a unicode escape, treat as normal character
+                        }
+                    }
+                    buf.append( c );
+                    break;
+                default:
+                    buf.append( c );
+                    break;
+            }
+        }
+
+        return buf.toString();
+    }
+
     /**
      * Mark instruction clauses with line-continuation markers
      * 
@@ -451,4 +627,106 @@ public class RoundTripBndFile
 
         block.add( buf.toString() );
     }
+
+    /**
+     * A single Bnd instruction, keeps the original lines so unchanged instructions are written back exactly
+     */
+    private static final class Instruction
+    {
+        /**
+         * Bnd directive
+         */
+        private final String m_directive;
+
+        /**
+         * Lines as they appear in the file, null if not yet written
+         */
+        private List m_lines;
+
+        /**
+         * Instruction as it appears in the file
+         */
+        private String m_savedValue;
+
+        /**
+         * Current instruction
+         */
+        private String m_value;
+
+        /**
+         * @param lines raw instruction lines from the Bnd file
+         */
+        public Instruction( List lines )
+        {
+            String[] directiveAndValue = parseInstruction( lines );
+
+            m_directive = directiveAndValue[0];
+            m_lines = lines;
+            m_savedValue = directiveAndValue[1];
+            m_value = directiveAndValue[1];
+        }
+
+        /**
+         * @param directive Bnd directive for a new instruction
+         */
+        public Instruction( String directive )
+        {
+            m_directive = directive;
+            m_value = "";
+        }
+
+        /**
+         * @return Bnd directive
+         */
+        public String getDirective()
+        {
+            return m_directive;
+        }
+
+        /**
+         * @return current instruction
+         */
+        public String getValue()
+        {
+            return m_value;
+        }
+
+        /**
+         * @param value new instruction
+         * @return true if the instruction changed, otherwise false
+         */
+        public boolean setValue( String value )
+        {
+            if( value.equals( m_value ) )
+            {
+                return false;
+            }
+
+            m_value = value;
+            return true;
+        }
+
+        /**
+         * @return true if this instruction is not yet in the file
+         */
+        public boolean isNew()
+        {
+            return null == m_lines;
+        }
+
+        /**
+         * @return lines to write, regenerated if the instruction has changed
+         */
+        public List getLines()
+        {
+            if( null == m_lines || !m_value.equals( m_savedValue ) )
+            {
+                m_lines = new ArrayList();
+                writeInstruction( m_lines, m_directive, m_value );
+                m_savedValue = m_value;
+            }
+
+            return m_lines;
+        }
+    }
 }
@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 
@@ -79,6 +81,17 @@ public final class StreamFactory
         {
             return WriterFactory.newXmlWriter( xmlFile );
         }
+
+        /**
+         * @param out XML output stream
+         * @return writer with correct XML encoding
+         * @throws IOException
+         */
+        static Writer newXmlWriter( OutputStream out )
+            throws IOException
+        {
+            return WriterFactory.newXmlWriter( out );
+        }
     }
 
     /**
@@ -139,6 +152,24 @@ public final class StreamFactory
         }
     }
 
+    /**
+     * @param out XML output stream
+     * @return writer with correct XML encoding
+     * @throws IOException
+     */
+    public static Writer newXmlWriter( OutputStream out )
+        throws IOException
+    {
+        try
+        {
+            return XmlStreamFactory.newXmlWriter( out );
+        }
+        catch( NoClassDefFoundError e )
+        {
+            return new OutputStreamWriter( out );
+        }
+    }
+
     /**
      * @param xmlFile XML file
      * @return current XML encoding if the file exists, otherwise the current platform encoding
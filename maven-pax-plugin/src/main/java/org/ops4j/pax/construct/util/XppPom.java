@@ -16,6 +16,7 @@ package org.ops4j.pax.construct.util;
  * limitations under the License.
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
@@ -23,8 +24,10 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
@@ -67,6 +70,7 @@ public class XppPom
         // protect against changes in working directory
         m_file = DirUtils.resolveFile( pomFile, true );
 
+        long startTime = BuildStats.start();
         try
         {
             XmlPullParser parser = RoundTripXml.createParser();
@@ -81,6 +85,11 @@ public class XppPom
         {
             throw new IOException( e.getLocalizedMessage() );
         }
+        finally
+        {
+            BuildStats.stop( "pom.read", startTime );
+            BuildStats.count( "pom.bytes.read", m_file.length() );
+        }
     }
 
     /**
@@ -304,6 +313,47 @@ public class XppPom
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public Set getDependencyIds()
+    {
+        Set ids = new LinkedHashSet();
+
+        addDependencyIds( ids, m_pom.getChild( "dependencies" ) );
+
+        Xpp3Dom dependencyManagement = m_pom.getChild( "dependencyManagement" );
+        if( null != dependencyManagement )
+        {
+            addDependencyIds( ids, dependencyManagement.getChild( "dependencies" ) );
+        }
+
+        return ids;
+    }
+
+    /**
+     * @param ids set of dependency ids
+     * @param dependencies dependencies element, may be null
+     */
+    private static void addDependencyIds( Set ids, Xpp3Dom dependencies )
+    {
+        if( null == dependencies )
+        {
+            return;
+        }
+
+        Xpp3Dom[] children = dependencies.getChildren( "dependency" );
+        for( int i = 0; i < children.length; i++ )
+        {
+            Xpp3Dom groupId = children[i].getChild( "groupId" );
+            Xpp3Dom artifactId = children[i].getChild( "artifactId" );
+            if( null != groupId && null != artifactId )
+            {
+                ids.add( groupId.getValue() + ':' + artifactId.getValue() );
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -370,6 +420,20 @@ public class XppPom
         version.setValue( newVersion );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void setPackaging( String newPackaging )
+    {
+        Xpp3Dom packaging = m_pom.getChild( "packaging" );
+        if( null == packaging )
+        {
+            packaging = new Xpp3Dom( "packaging" );
+            m_pom.addChild( packaging );
+        }
+        packaging.setValue( newPackaging );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -852,8 +916,13 @@ public class XppPom
     public void write()
         throws IOException
     {
+        long startTime = BuildStats.start();
+
         String encoding = StreamFactory.getXmlEncoding( m_file );
-        Writer writer = StreamFactory.newXmlWriter( m_file );
+
+        // serialize in memory, so the file is either replaced in one go or left untouched
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        Writer writer = StreamFactory.newXmlWriter( buf );
 
         XmlSerializer serializer = RoundTripXml.createSerializer();
 
@@ -863,6 +932,11 @@ public class XppPom
         serializer.endDocument();
 
         IOUtil.close( writer );
+
+        AtomicFileUtils.write( m_file, buf.toByteArray() );
+
+        BuildStats.stop( "pom.write", startTime );
+        BuildStats.count( "pom.bytes.written", m_file.length() );
     }
 
     /**
@@ -1000,17 +1074,32 @@ public class XppPom
     {
         if( obj instanceof XppPom )
         {
-            return getId().equals( ( (XppPom) obj ).getId() );
+            // same as comparing ids, but without building them
+            XppPom pom = (XppPom) obj;
+            return same( getArtifactId(), pom.getArtifactId() ) && same( getGroupId(), pom.getGroupId() )
+                && same( getVersion(), pom.getVersion() ) && same( getPackaging(), pom.getPackaging() );
         }
         return false;
     }
 
+    /**
+     * @param lhs first value, may be null
+     * @param rhs second value, may be null
+     * @return true if both values are null or equal, otherwise false
+     */
+    private static boolean same( String lhs, String rhs )
+    {
+        return null == lhs ? null == rhs : lhs.equals( rhs );
+    }
+
     /**
      * {@inheritDoc}
      */
     public int hashCode()
     {
-        return getId().hashCode();
+        // artifactId is the most selective part of the id, but may be missing from a broken POM
+        String artifactId = getArtifactId();
+        return null == artifactId ? 0 : artifactId.hashCode();
     }
 
     /**
@@ -0,0 +1,9 @@
+#!/bin/sh
+
+pax-create-bundle -p org.example.shared -n shared -g my.example.project
+pax-create-bundle -p org.example.client -n client -g my.example.project
+pax-import-bundle -g my.example.project -a shared -v 1.0-SNAPSHOT -- -DtargetDirectory=client -Ddeploy=false
+pax-create-module -a copies
+pax-create-bundle -p org.example.client -n client -g my.example.project -- -DtargetDirectory=copies
+pax-import-bundle -g my.example.project -a shared -v 1.0-SNAPSHOT -- -DtargetDirectory=copies/client -Ddeploy=false
+pax-move-bundle -n shared -d moved
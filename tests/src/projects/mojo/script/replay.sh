@@ -0,0 +1,5 @@
+#!/bin/sh
+
+pax-create-bundle -p org.example.hello -n hello
+pax-create-module -a modules
+pax-create-bundle -p org.example.world -n world -- -DtargetDirectory=modules